@@ -0,0 +1,130 @@
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import javax.imageio.ImageIO;
+
+/**
+ * Reports how far the groups of BinarizingImageGroupFinder's pyramid mode, at downsample factors
+ * 2, 4 and 8 with and without refinement, are from the full-resolution groups on 8K (7680x4320)
+ * images. The time each mode takes is measured by the pyramidGroups benchmark in the jmh module.
+ *
+ * Two images are used: the sample image tiled to fill 8K, and a synthetic scene of large discs
+ * sprinkled with a few thousand specks of 1 to 3 pixels. For each mode it reports:
+ *
+ *   found     how many groups the mode returned, next to the full-resolution count
+ *   exact     how many of them are exactly a full-resolution group (size and centroid)
+ *   missed    how many of the 20 largest full-resolution groups are not exactly among them
+ *   top size  the mean size error of the 20 largest full-resolution groups, matched to the
+ *             returned group with the nearest centroid, as a percentage
+ *   top px    the mean centroid distance, in pixels, of the same matches
+ *
+ * Run from the centroid-finder directory with:
+ *
+ *   javac -d bench-out -cp lib/junit-platform-console-standalone-1.12.0.jar src/*.java bench/*.java
+ *   java -Xmx4g -cp bench-out PyramidAccuracy
+ */
+public class PyramidAccuracy {
+    private static final int TOP = 20;
+
+    private static final int TARGET_COLOR = 0xFFA200;
+    private static final int THRESHOLD = 164;
+
+    public static void main(String[] args) throws Exception {
+        ImageBinarizer binarizer = new DistanceImageBinarizer(new EuclideanColorDistance(), TARGET_COLOR, THRESHOLD);
+        BinaryGroupFinder labeler = new ScanlineBinaryGroupFinder();
+
+        report("sample tiled 8K", tiledSample(7680, 4320), binarizer, labeler);
+        report("discs+specks 8K", discs(7680, 4320), binarizer, labeler);
+    }
+
+    private static void report(String name, BufferedImage image, ImageBinarizer binarizer, BinaryGroupFinder labeler) {
+        ImageGroupFinder full = new BinarizingImageGroupFinder(binarizer, labeler);
+        List<Group> expected = full.findConnectedGroups(image);
+
+        System.out.printf("%s: %d groups at full resolution%n", name, expected.size());
+        System.out.printf("  %-14s %7s %7s %7s %9s %7s%n", "mode", "found", "exact", "missed", "top size", "top px");
+        for (int downsample : new int[] {2, 4, 8}) {
+            for (boolean refine : new boolean[] {false, true}) {
+                ImageGroupFinder pyramid = new BinarizingImageGroupFinder(binarizer, labeler, null, downsample, refine);
+                List<Group> groups = pyramid.findConnectedGroups(image);
+                double[] error = topError(expected, groups);
+                List<Group> top = expected.subList(0, Math.min(TOP, expected.size()));
+                System.out.printf("  1/%d %-10s %7d %7d %7d %8.2f%% %7.2f%n", downsample, refine ? "refined" : "scaled",
+                        groups.size(), exactCount(expected, groups), top.size() - exactCount(groups, top),
+                        error[0], error[1]);
+            }
+        }
+    }
+
+    // How many of the groups are exactly one of the expected groups, or with the lists swapped, how many expected groups were found
+    private static int exactCount(List<Group> expected, List<Group> groups) {
+        Set<Group> exact = new HashSet<>(expected);
+        int count = 0;
+        for (Group group : groups) {
+            if (exact.contains(group)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // The mean size error in percent and mean centroid distance of the largest expected groups
+    private static double[] topError(List<Group> expected, List<Group> groups) {
+        int top = Math.min(TOP, expected.size());
+        if (top == 0 || groups.isEmpty()) {
+            return new double[] {0, 0};
+        }
+        double sizeError = 0;
+        double distance = 0;
+        for (Group want : expected.subList(0, top)) {
+            Group nearest = groups.get(0);
+            double best = Double.MAX_VALUE;
+            for (Group group : groups) {
+                double d = Math.hypot(group.centroid().x() - want.centroid().x(), group.centroid().y() - want.centroid().y());
+                if (d < best) {
+                    best = d;
+                    nearest = group;
+                }
+            }
+            sizeError += 100.0 * Math.abs(nearest.size() - want.size()) / want.size();
+            distance += best;
+        }
+        return new double[] {sizeError / top, distance / top};
+    }
+
+    private static BufferedImage tiledSample(int width, int height) throws Exception {
+        BufferedImage sample = ImageIO.read(new File("sampleInput/squares.jpg"));
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_3BYTE_BGR);
+        Graphics2D graphics = image.createGraphics();
+        for (int y = 0; y < height; y += sample.getHeight()) {
+            for (int x = 0; x < width; x += sample.getWidth()) {
+                graphics.drawImage(sample, x, y, null);
+            }
+        }
+        graphics.dispose();
+        return image;
+    }
+
+    private static BufferedImage discs(int width, int height) {
+        Random random = new Random(1);
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_3BYTE_BGR);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(new Color(0x202020));
+        graphics.fillRect(0, 0, width, height);
+        graphics.setColor(new Color(TARGET_COLOR));
+        for (int i = 0; i < 60; i++) {
+            int radius = 40 + random.nextInt(160);
+            graphics.fillOval(random.nextInt(width), random.nextInt(height), 2 * radius, 2 * radius);
+        }
+        for (int i = 0; i < 3000; i++) {
+            graphics.fillRect(random.nextInt(width), random.nextInt(height), 1 + random.nextInt(3), 1 + random.nextInt(3));
+        }
+        graphics.dispose();
+        return image;
+    }
+}
@@ -0,0 +1,118 @@
+package centroidfinder;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+import javax.imageio.ImageIO;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * The input images shared by the image benchmarks, one per combination of size and density.
+ *
+ * Sizes:
+ *   squares        the size of sampleInput/squares.jpg
+ *   1080p, 4K, 8K  1920x1080, 3840x2160 and 7680x4320
+ *
+ * Densities describe where the target-colored (white after binarizing) pixels are:
+ *   sample         sampleInput/squares.jpg itself, tiled to fill the size
+ *   speckle        2% of pixels at random, almost all single-pixel groups
+ *   blobs          a grid of large filled discs covering about 40% of the image
+ *   checkerboard   every other pixel, the most groups an image can have
+ *   full           every pixel, one group covering the image
+ *
+ * The images are TYPE_3BYTE_BGR, the type ImageIO decodes JPEGs to. Every image is generated
+ * from a fixed seed so runs are comparable. The sample image is looked up in sampleInput/ and
+ * ../sampleInput/, or wherever the centroidfinder.sample system property points.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkImages {
+    static final int TARGET_COLOR = 0xFFA200;
+    static final int THRESHOLD = 164;
+    static final int BACKGROUND_COLOR = 0x202020;
+
+    @Param({"squares", "1080p", "4K", "8K"})
+    public String size;
+
+    @Param({"sample", "speckle", "blobs", "checkerboard", "full"})
+    public String density;
+
+    /** The input image. */
+    public BufferedImage image;
+
+    /** The input image binarized against TARGET_COLOR, for the group finder benchmarks. */
+    public int[][] binary;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        BufferedImage sample = ImageIO.read(sampleFile());
+        int width;
+        int height;
+        switch (size) {
+            case "squares" -> {
+                width = sample.getWidth();
+                height = sample.getHeight();
+            }
+            case "1080p" -> {
+                width = 1920;
+                height = 1080;
+            }
+            case "4K" -> {
+                width = 3840;
+                height = 2160;
+            }
+            case "8K" -> {
+                width = 7680;
+                height = 4320;
+            }
+            default -> throw new IllegalArgumentException("Unknown size: " + size);
+        }
+
+        image = new BufferedImage(width, height, BufferedImage.TYPE_3BYTE_BGR);
+        Random random = new Random(17);
+        int radius = Math.max(4, Math.min(width, height) / 12);
+        int cell = 3 * radius;
+        int[] row = new int[width];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                boolean foreground = switch (density) {
+                    case "sample" -> false;
+                    case "speckle" -> random.nextInt(50) == 0;
+                    case "blobs" -> {
+                        int dx = x % cell - cell / 2;
+                        int dy = y % cell - cell / 2;
+                        yield dx * dx + dy * dy <= radius * radius;
+                    }
+                    case "checkerboard" -> ((x + y) & 1) == 0;
+                    case "full" -> true;
+                    default -> throw new IllegalArgumentException("Unknown density: " + density);
+                };
+                row[x] = density.equals("sample")
+                        ? sample.getRGB(x % sample.getWidth(), y % sample.getHeight())
+                        : foreground ? TARGET_COLOR : BACKGROUND_COLOR;
+            }
+            image.setRGB(0, y, width, 1, row, 0, width);
+        }
+
+        binary = new DistanceImageBinarizer(new EuclideanColorDistance(), TARGET_COLOR, THRESHOLD).toBinaryArray(image);
+    }
+
+    private static File sampleFile() {
+        String configured = System.getProperty("centroidfinder.sample");
+        if (configured != null) {
+            return new File(configured);
+        }
+        for (String path : new String[] {"sampleInput/squares.jpg", "../sampleInput/squares.jpg"}) {
+            File file = new File(path);
+            if (file.isFile()) {
+                return file;
+            }
+        }
+        throw new IllegalStateException("Cannot find sampleInput/squares.jpg; set -Dcentroidfinder.sample=<path>");
+    }
+}
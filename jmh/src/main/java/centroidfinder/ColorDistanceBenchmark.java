@@ -0,0 +1,65 @@
+package centroidfinder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Times EuclideanColorDistance on a fixed set of random color pairs, both the distance itself
+ * and the squared-distance threshold test the binarizer uses. Scores are per color pair.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ColorDistanceBenchmark {
+    private static final int PAIRS = 4096;
+
+    private final EuclideanColorDistance distance = new EuclideanColorDistance();
+    private final int[] colorsA = new int[PAIRS];
+    private final int[] colorsB = new int[PAIRS];
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(17);
+        for (int i = 0; i < PAIRS; i++) {
+            colorsA[i] = random.nextInt(1 << 24);
+            colorsB[i] = random.nextInt(1 << 24);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAIRS)
+    public double distance() {
+        double sum = 0;
+        for (int i = 0; i < PAIRS; i++) {
+            sum += distance.distance(colorsA[i], colorsB[i]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAIRS)
+    public int withinThreshold() {
+        int count = 0;
+        for (int i = 0; i < PAIRS; i++) {
+            if (distance.withinThreshold(colorsA[i], colorsB[i], BenchmarkImages.THRESHOLD)) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,109 @@
+package centroidfinder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Times the image hot paths over every size and density in BenchmarkImages:
+ * binarizing, finding groups in an already binarized image, and both together.
+ * binarize runs both the scalar DistanceImageBinarizer and the row-at-a-time
+ * VectorizedDistanceImageBinarizer, which give the same output.
+ *
+ * pyramidGroups times BinarizingImageGroupFinder's pyramid mode for every downsample factor, with
+ * and without refinement; mode=full is the same finder at full resolution, for comparison.
+ * PyramidAccuracy in ../bench reports how far each mode's groups are from the full-resolution ones.
+ *
+ * Each benchmark returns its result so JMH keeps the work from being optimized away.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@State(Scope.Benchmark)
+public class ImageBenchmarks {
+    private final DistanceImageBinarizer binarizer =
+            new DistanceImageBinarizer(new EuclideanColorDistance(), BenchmarkImages.TARGET_COLOR, BenchmarkImages.THRESHOLD);
+    private final BinaryGroupFinder finder = new DfsBinaryGroupFinder();
+    private final ImageGroupFinder endToEnd = new BinarizingImageGroupFinder(binarizer, finder);
+
+    @Benchmark
+    public int[][] binarize(BenchmarkImages images, Binarizer variant) {
+        return variant.binarizer.toBinaryArray(images.image);
+    }
+
+    @Benchmark
+    public List<Group> findGroups(BenchmarkImages images) {
+        return finder.findConnectedGroups(images.binary);
+    }
+
+    @Benchmark
+    public List<Group> binarizeAndFindGroups(BenchmarkImages images) {
+        return endToEnd.findConnectedGroups(images.image);
+    }
+
+    @Benchmark
+    public List<Group> pyramidGroups(BenchmarkImages images, Pyramid pyramid) {
+        return pyramid.finder.findConnectedGroups(images.image);
+    }
+
+    /**
+     * The binarizer to time: the scalar one, or the vectorized one.
+     */
+    @State(Scope.Benchmark)
+    public static class Binarizer {
+        @Param({"distance", "vectorized"})
+        public String kind;
+
+        ImageBinarizer binarizer;
+
+        @Setup
+        public void setUp() {
+            binarizer = switch (kind) {
+                case "distance" -> new DistanceImageBinarizer(new EuclideanColorDistance(),
+                        BenchmarkImages.TARGET_COLOR, BenchmarkImages.THRESHOLD);
+                case "vectorized" -> new VectorizedDistanceImageBinarizer(BenchmarkImages.TARGET_COLOR,
+                        BenchmarkImages.THRESHOLD);
+                default -> throw new IllegalArgumentException("Unknown binarizer: " + kind);
+            };
+        }
+    }
+
+    /**
+     * A pyramid-mode finder for each mode: full resolution, or scaled or refined at 1/2, 1/4 or 1/8.
+     */
+    @State(Scope.Benchmark)
+    public static class Pyramid {
+        @Param({"full", "scaled-2", "scaled-4", "scaled-8", "refined-2", "refined-4", "refined-8"})
+        public String mode;
+
+        ImageGroupFinder finder;
+
+        @Setup
+        public void setUp() {
+            DistanceImageBinarizer binarizer = new DistanceImageBinarizer(new EuclideanColorDistance(),
+                    BenchmarkImages.TARGET_COLOR, BenchmarkImages.THRESHOLD);
+            int downsample = switch (mode) {
+                case "full" -> 1;
+                case "scaled-2", "refined-2" -> 2;
+                case "scaled-4", "refined-4" -> 4;
+                case "scaled-8", "refined-8" -> 8;
+                default -> throw new IllegalArgumentException("Unknown mode: " + mode);
+            };
+            boolean refine = mode.startsWith("refined");
+            finder = new BinarizingImageGroupFinder(binarizer, new ScanlineBinaryGroupFinder(), null, downsample, refine);
+        }
+    }
+}
@@ -0,0 +1,241 @@
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.imageio.ImageIO;
+
+/**
+ * Summarizes many images at once, writing each image's outputs into an output directory.
+ *
+ * For an input named "name.ext" the processor writes "name_groups.csv", in the same "size,x,y"
+ * format as ImageSummaryApp's groups.csv, and unless turned off "name_binarized.png". Since outputs
+ * are named by the input's name without its directory or extension, a batch with two inputs of the
+ * same name, such as "a.png" and "a.jpg", is rejected before anything is written.
+ *
+ * Reading and writing files is done on a thread per image (virtual threads when the JVM has them),
+ * while binarizing and finding groups is done on a fixed pool of platform threads sized for the
+ * CPU. At most maxInFlight images are being handled at any time, which bounds how many decoded
+ * images are held in memory however large the batch is. An image that cannot be read or written
+ * is reported and counted as failed, and the rest of the batch carries on.
+ *
+ * The binarizer and group finder are shared by all compute threads, so they must be safe to use
+ * from several threads at once, as the binarizers and finders in this project are.
+ */
+public class BatchProcessor {
+    private final ImageBinarizer binarizer;
+    private final BinaryGroupFinder groupFinder;
+    private final GroupQuery query;
+    private final boolean writeBinarized;
+    private final int computeThreads;
+    private final int maxInFlight;
+
+    /**
+     * Constructs a BatchProcessor that keeps every group, uses one compute thread per available
+     * processor and allows two images in flight per compute thread.
+     *
+     * @param binarizer the binarizer to apply to each image
+     * @param groupFinder the group finder to run on each binarized image
+     */
+    public BatchProcessor(ImageBinarizer binarizer, BinaryGroupFinder groupFinder) {
+        this(binarizer, groupFinder, GroupQuery.ALL, true, Runtime.getRuntime().availableProcessors(),
+                2 * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs a BatchProcessor.
+     *
+     * @param binarizer the binarizer to apply to each image
+     * @param groupFinder the group finder to run on each binarized image
+     * @param query which groups of each image to keep
+     * @param writeBinarized whether to write each image's binarized mask
+     * @param computeThreads the number of threads that binarize and find groups
+     * @param maxInFlight the most images being read, processed or written at once
+     */
+    public BatchProcessor(ImageBinarizer binarizer, BinaryGroupFinder groupFinder, GroupQuery query,
+            boolean writeBinarized, int computeThreads, int maxInFlight) {
+        if (binarizer == null || groupFinder == null || query == null) {
+            throw new IllegalArgumentException("Binarizer, group finder and query cannot be null");
+        }
+        if (computeThreads < 1 || maxInFlight < 1) {
+            throw new IllegalArgumentException("Thread and in-flight counts must be at least 1");
+        }
+        this.binarizer = binarizer;
+        this.groupFinder = groupFinder;
+        this.query = query;
+        this.writeBinarized = writeBinarized;
+        this.computeThreads = computeThreads;
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Lists the images named by a directory or by a glob over file names in one directory,
+     * such as "photos/*.jpg", in natural order.
+     *
+     * @param input a directory of images or a glob
+     * @return the matching image files
+     * @throws IllegalArgumentException if the input names no images
+     */
+    public static List<File> resolveInputs(String input) {
+        if (input == null) {
+            throw new IllegalArgumentException("Input cannot be null");
+        }
+        File file = new File(input);
+        List<File> images;
+        if (file.isDirectory()) {
+            images = FrameSequence.listImages(file);
+        } else {
+            File directory = file.getParentFile() == null ? new File(".") : file.getParentFile();
+            PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + file.getName());
+            File[] matches = directory.listFiles(f -> f.isFile() && matcher.matches(Path.of(f.getName())));
+            images = new ArrayList<>(matches == null ? List.of() : List.of(matches));
+            images.sort((a, b) -> FrameSequence.compareNatural(a.getName(), b.getName()));
+        }
+        if (images.isEmpty()) {
+            throw new IllegalArgumentException("No images found for " + input);
+        }
+        return images;
+    }
+
+    /**
+     * Processes every input image and writes its outputs into outputDir, creating it if needed.
+     *
+     * @param inputs the image files to process
+     * @param outputDir the directory to write the outputs into
+     * @return the totals of the run
+     * @throws IllegalArgumentException if two inputs would write the same outputs or outputDir cannot be created
+     */
+    public BatchReport process(List<File> inputs, File outputDir) {
+        if (inputs == null || outputDir == null) {
+            throw new IllegalArgumentException("Inputs and output directory cannot be null");
+        }
+        checkOutputNames(inputs);
+        if (!outputDir.isDirectory() && !outputDir.mkdirs()) {
+            throw new IllegalArgumentException("Cannot create output directory: " + outputDir);
+        }
+
+        AtomicInteger images = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        AtomicLong pixels = new AtomicLong();
+        AtomicLong groups = new AtomicLong();
+        Semaphore inFlight = new Semaphore(maxInFlight);
+
+        long start = System.nanoTime();
+        ExecutorService compute = Executors.newFixedThreadPool(computeThreads, runnable -> {
+            Thread thread = new Thread(runnable, "batch-compute");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ExecutorService io = Tasks.newThreadPerTaskExecutor();
+        try {
+            for (File input : inputs) {
+                // Waits here while maxInFlight images are already being handled
+                inFlight.acquire();
+                io.execute(() -> {
+                    try {
+                        Summary summary = processImage(input, outputDir, compute);
+                        images.incrementAndGet();
+                        pixels.addAndGet(summary.pixels());
+                        groups.addAndGet(summary.groups());
+                    } catch (Throwable e) {
+                        // Errors such as running out of memory on one image fail only that image
+                        failed.incrementAndGet();
+                        System.err.println("Error processing " + input + ": " + e.getMessage());
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+            // Every permit is back once the last image is done
+            inFlight.acquire(maxInFlight);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while processing images", e);
+        } finally {
+            io.shutdownNow();
+            compute.shutdownNow();
+        }
+        return new BatchReport(images.get(), failed.get(), pixels.get(), groups.get(), System.nanoTime() - start);
+    }
+
+    // Reads one image, hands the CPU work to the compute pool, then writes its outputs
+    private Summary processImage(File input, File outputDir, ExecutorService compute)
+            throws IOException, InterruptedException {
+        BufferedImage image = ImageIO.read(input);
+        if (image == null) {
+            throw new IOException("not a readable image");
+        }
+
+        Future<Result> future = compute.submit(() -> {
+            int[][] binaryArray = binarizer.toBinaryArray(image);
+            BufferedImage mask = writeBinarized ? binarizer.toBinaryImage(binaryArray) : null;
+            return new Result(mask, groupFinder.findConnectedGroups(binaryArray, query));
+        });
+        Result result;
+        try {
+            result = future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+
+        String name = baseName(input);
+        File csv = new File(outputDir, name + "_groups.csv");
+        try (PrintWriter writer = new PrintWriter(csv)) {
+            for (Group group : result.groups()) {
+                writer.println(group.toCsvRow());
+            }
+            // PrintWriter keeps write errors to itself until asked
+            if (writer.checkError()) {
+                throw new IOException("could not write " + csv);
+            }
+        }
+        if (result.mask() != null) {
+            ImageIO.write(result.mask(), "png", new File(outputDir, name + "_binarized.png"));
+        }
+
+        return new Summary((long) image.getWidth() * image.getHeight(), result.groups().size());
+    }
+
+    // Rejects inputs whose outputs would overwrite each other, ignoring case for case-insensitive file systems
+    private static void checkOutputNames(List<File> inputs) {
+        Map<String, File> names = new HashMap<>();
+        for (File input : inputs) {
+            File other = names.putIfAbsent(baseName(input).toLowerCase(Locale.ROOT), input);
+            if (other != null) {
+                throw new IllegalArgumentException("Inputs " + other + " and " + input + " would write the same outputs");
+            }
+        }
+    }
+
+    // The file name without its extension
+    private static String baseName(File file) {
+        String name = file.getName();
+        int dot = name.lastIndexOf('.');
+        return dot > 0 ? name.substring(0, dot) : name;
+    }
+
+    // The outputs of the compute stage for one image
+    private record Result(BufferedImage mask, List<Group> groups) {
+    }
+
+    // What one processed image adds to the report
+    private record Summary(long pixels, int groups) {
+    }
+}
@@ -0,0 +1,180 @@
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for BatchProcessor and BatchReport.
+ */
+public class BatchProcessorTest {
+
+    private static final DistanceImageBinarizer BINARIZER =
+            new DistanceImageBinarizer(new EuclideanColorDistance(), 0xFFFFFF, 10);
+
+    /** Writes count random black and white PNGs named image_0.png, image_1.png, ... */
+    private static List<BufferedImage> writeImages(Path dir, int count) throws IOException {
+        Random random = new Random(14);
+        List<BufferedImage> images = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            BufferedImage image = new BufferedImage(20 + i, 15, BufferedImage.TYPE_INT_RGB);
+            for (int y = 0; y < image.getHeight(); y++) {
+                for (int x = 0; x < image.getWidth(); x++) {
+                    image.setRGB(x, y, random.nextDouble() < 0.4 ? 0xFFFFFF : 0x000000);
+                }
+            }
+            ImageIO.write(image, "png", dir.resolve("image_" + i + ".png").toFile());
+            images.add(image);
+        }
+        return images;
+    }
+
+    /** Every image gets its own groups CSV and binarized PNG, matching a single-image run. */
+    @Test
+    void testPerImageOutputs(@TempDir Path in, @TempDir Path out) throws IOException {
+        List<BufferedImage> images = writeImages(in, 12);
+        BinaryGroupFinder finder = new ScanlineBinaryGroupFinder();
+
+        // Few threads and one image in flight per thread make the images queue up
+        BatchReport report = new BatchProcessor(BINARIZER, finder, GroupQuery.ALL, true, 2, 2)
+                .process(BatchProcessor.resolveInputs(in.toString()), out.toFile());
+
+        assertEquals(12, report.images());
+        assertEquals(0, report.failed());
+        long pixels = 0;
+        long groups = 0;
+        for (int i = 0; i < images.size(); i++) {
+            int[][] binary = BINARIZER.toBinaryArray(images.get(i));
+            List<String> expected = finder.findConnectedGroups(binary).stream().map(Group::toCsvRow).toList();
+            assertEquals(expected, Files.readAllLines(out.resolve("image_" + i + "_groups.csv")));
+
+            BufferedImage mask = ImageIO.read(out.resolve("image_" + i + "_binarized.png").toFile());
+            assertArrayEquals(binary, BINARIZER.toBinaryArray(mask));
+
+            pixels += (long) images.get(i).getWidth() * images.get(i).getHeight();
+            groups += expected.size();
+        }
+        assertEquals(pixels, report.pixels());
+        assertEquals(groups, report.groups());
+    }
+
+    /** An unreadable image is counted as failed without stopping the batch. */
+    @Test
+    void testFailedImage(@TempDir Path in, @TempDir Path out) throws IOException {
+        writeImages(in, 3);
+        Files.writeString(in.resolve("image_1.png"), "not an image");
+
+        BatchReport report = new BatchProcessor(BINARIZER, new ScanlineBinaryGroupFinder())
+                .process(BatchProcessor.resolveInputs(in.toString()), out.resolve("nested").toFile());
+
+        assertEquals(2, report.images());
+        assertEquals(1, report.failed());
+        assertTrue(Files.exists(out.resolve("nested/image_2_groups.csv")));
+        assertFalse(Files.exists(out.resolve("nested/image_1_groups.csv")));
+    }
+
+    /** An Error while decoding one image fails that image only. */
+    @Test
+    void testImageError(@TempDir Path in, @TempDir Path out) throws IOException {
+        writeImages(in, 3);
+        List<File> inputs = new ArrayList<>(BatchProcessor.resolveInputs(in.toString()));
+        inputs.set(1, new File(inputs.get(1).getPath()) {
+            @Override
+            public boolean canRead() {
+                throw new OutOfMemoryError("decoding");
+            }
+        });
+
+        BatchReport report = new BatchProcessor(BINARIZER, new ScanlineBinaryGroupFinder()).process(inputs, out.toFile());
+
+        assertEquals(2, report.images());
+        assertEquals(1, report.failed());
+    }
+
+    /** A groups CSV that cannot be written fails its image. */
+    @Test
+    void testFailedWrite(@TempDir Path in, @TempDir Path out) throws IOException {
+        Path full = Path.of("/dev/full");
+        assumeTrue(Files.isWritable(full), "needs /dev/full");
+        writeImages(in, 2);
+        Files.createSymbolicLink(out.resolve("image_0_groups.csv"), full);
+
+        BatchReport report = new BatchProcessor(BINARIZER, new ScanlineBinaryGroupFinder(), GroupQuery.ALL, false, 1, 1)
+                .process(BatchProcessor.resolveInputs(in.toString()), out.toFile());
+
+        assertEquals(1, report.images());
+        assertEquals(1, report.failed());
+    }
+
+    /** Binarized masks can be skipped. */
+    @Test
+    void testWithoutBinarized(@TempDir Path in, @TempDir Path out) throws IOException {
+        writeImages(in, 2);
+        new BatchProcessor(BINARIZER, new ScanlineBinaryGroupFinder(), GroupQuery.ALL, false, 1, 1)
+                .process(BatchProcessor.resolveInputs(in.toString()), out.toFile());
+
+        assertTrue(Files.exists(out.resolve("image_0_groups.csv")));
+        assertFalse(Files.exists(out.resolve("image_0_binarized.png")));
+    }
+
+    /** Inputs that would write the same outputs are rejected before anything is written. */
+    @Test
+    void testDuplicateNames(@TempDir Path in, @TempDir Path out) throws IOException {
+        writeImages(in, 1);
+        Files.copy(in.resolve("image_0.png"), in.resolve("image_0.jpg"));
+        Files.createDirectory(in.resolve("other"));
+        Files.copy(in.resolve("image_0.png"), in.resolve("other/Image_0.png"));
+        BatchProcessor processor = new BatchProcessor(BINARIZER, new ScanlineBinaryGroupFinder());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> processor.process(BatchProcessor.resolveInputs(in.resolve("image_0.*").toString()), out.toFile()));
+        assertThrows(IllegalArgumentException.class, () -> processor.process(
+                List.of(in.resolve("image_0.png").toFile(), in.resolve("other/Image_0.png").toFile()), out.toFile()));
+        assertEquals(0, out.toFile().list().length);
+    }
+
+    /** A glob picks out matching file names in natural order. */
+    @Test
+    void testResolveGlob(@TempDir Path in) throws IOException {
+        writeImages(in, 11);
+        Files.writeString(in.resolve("other.png"), "");
+
+        List<File> inputs = BatchProcessor.resolveInputs(in.resolve("image_1*.png").toString());
+        assertEquals(List.of("image_1.png", "image_10.png"), inputs.stream().map(File::getName).toList());
+        assertEquals(12, BatchProcessor.resolveInputs(in.toString()).size());
+        assertThrows(IllegalArgumentException.class,
+                () -> BatchProcessor.resolveInputs(in.resolve("*.jpg").toString()));
+    }
+
+    /** Throughput is derived from the totals and the elapsed time. */
+    @Test
+    void testReport() {
+        BatchReport report = new BatchReport(10, 1, 4_000_000, 50, 2_000_000_000L);
+        assertEquals(5.0, report.imagesPerSecond(), 1e-9);
+        assertEquals(2.0, report.megapixelsPerSecond(), 1e-9);
+        assertTrue(report.summary().startsWith("Processed 10 images (1 failed), 50 groups"));
+        assertEquals(0.0, new BatchReport(0, 0, 0, 0, 0).imagesPerSecond());
+    }
+
+    /** Bad constructor arguments are rejected. */
+    @Test
+    void testInvalidArguments() {
+        BinaryGroupFinder finder = new ScanlineBinaryGroupFinder();
+        assertThrows(IllegalArgumentException.class, () -> new BatchProcessor(null, finder));
+        assertThrows(IllegalArgumentException.class, () -> new BatchProcessor(BINARIZER, finder, null, true, 1, 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> new BatchProcessor(BINARIZER, finder, GroupQuery.ALL, true, 0, 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> new BatchProcessor(BINARIZER, finder, GroupQuery.ALL, true, 1, 0));
+    }
+}
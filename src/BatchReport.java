@@ -0,0 +1,36 @@
+import java.util.Locale;
+
+/**
+ * The totals of one BatchProcessor run.
+ *
+ * @param images the number of images that were processed successfully
+ * @param failed the number of images that could not be read, processed or written
+ * @param pixels the total number of pixels in the processed images
+ * @param groups the total number of groups written
+ * @param elapsedNanos the wall-clock time of the whole run in nanoseconds
+ */
+public record BatchReport(int images, int failed, long pixels, long groups, long elapsedNanos) {
+
+    /**
+     * @return processed images per second of wall-clock time
+     */
+    public double imagesPerSecond() {
+        return elapsedNanos == 0 ? 0 : images * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * @return processed megapixels per second of wall-clock time
+     */
+    public double megapixelsPerSecond() {
+        return elapsedNanos == 0 ? 0 : pixels * 1e3 / elapsedNanos;
+    }
+
+    /**
+     * @return a one-line human readable summary of the run
+     */
+    public String summary() {
+        return String.format(Locale.ROOT,
+                "Processed %d images (%d failed), %d groups, %.1f megapixels in %.2f s: %.2f images/s, %.2f megapixels/s",
+                images, failed, groups, pixels / 1e6, elapsedNanos / 1e9, imagesPerSecond(), megapixelsPerSecond());
+    }
+}
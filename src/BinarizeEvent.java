@@ -0,0 +1,12 @@
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A JFR event for binarizing one image.
+ */
+@Name("centroidfinder.Binarize")
+@Label("Binarize")
+@Description("Converting an image into a binary array")
+final class BinarizeEvent extends PipelineEvent {
+}
@@ -1,4 +1,7 @@
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -8,10 +11,34 @@ import java.util.List;
  * This class uses an ImageBinarizer to convert an RGB image into a binary 2D array (where each pixel is either 0 or 1).
  * The BinaryGroupFinder is then applied to the binary array to locate connected groups of white pixels.
  * The connected groups are returned sorted in descending order based on the criteria defined in the Group record.
+ *
+ * An optional PipelineListener is told the time, pixel count, group count and allocation of the binarize
+ * and label stages of every call, and both stages are emitted as Java Flight Recorder events while a
+ * recording enables them. Without either, nothing is measured.
+ *
+ * Pyramid mode looks at the image in downsample x downsample blocks. Without refinement only the
+ * pixel in the middle of each block is binarized, giving an image 2, 4 or 8 times smaller in each
+ * direction, and the groups of that small image are scaled back up: each size is multiplied by the
+ * downsample factor squared, and each centroid is moved to the middle of its block, so both are
+ * only approximate, and groups that miss every sampled pixel are lost.
+ *
+ * With refinement the results are exact. Every pixel is binarized, 64 rows at a time, into a
+ * bit mask, and a block counts as white in the downsampled image if any of its pixels is white.
+ * The downsampled image is labeled into candidate regions, each of which holds every
+ * full-resolution group that touches it, and the regions are refined largest white pixel count
+ * first by flood filling the mask from their white pixels. Once a min-size or top-k query cannot
+ * keep a group as large as a region's white pixel count, that region and all smaller ones are
+ * skipped without being filled. Regions of interest are always searched at full resolution.
  */
 public class BinarizingImageGroupFinder implements ImageGroupFinder {
+    // The rows refinement binarizes at a time
+    private static final int BAND_HEIGHT = 64;
+
     private final ImageBinarizer binarizer;
     private final BinaryGroupFinder groupFinder;
+    private final PipelineListener listener;
+    private final int downsample;
+    private final boolean refine;
 
     /**
      * Constructs a BinarizingImageGroupFinder using the specified ImageBinarizer and BinaryGroupFinder.
@@ -20,8 +47,46 @@ public class BinarizingImageGroupFinder implements ImageGroupFinder {
      * @param groupFinder the BinaryGroupFinder used to find connected white pixel groups in the binary array
      */
     public BinarizingImageGroupFinder(ImageBinarizer binarizer, BinaryGroupFinder groupFinder) {
+        this(binarizer, groupFinder, null);
+    }
+
+    /**
+     * Constructs a BinarizingImageGroupFinder that reports the binarize and label stages of every call
+     * to a listener.
+     *
+     * @param binarizer the ImageBinarizer used to convert an image into a binary 2D array
+     * @param groupFinder the BinaryGroupFinder used to find connected white pixel groups in the binary array
+     * @param listener the listener to report to, or null to measure nothing
+     */
+    public BinarizingImageGroupFinder(ImageBinarizer binarizer, BinaryGroupFinder groupFinder, PipelineListener listener) {
+        this(binarizer, groupFinder, listener, 1, false);
+    }
+
+    /**
+     * Constructs a BinarizingImageGroupFinder in pyramid mode, which first looks at a downsampled
+     * image and then, if asked to, refines what it found at full resolution.
+     *
+     * Without refinement a group of any size that is too thin to contain a sampled pixel, such as a
+     * line one pixel wide lying between two sampled rows, is missed, so a top-k or min-size query
+     * can return different groups than at full resolution. Refined results always match full
+     * resolution.
+     *
+     * @param binarizer the ImageBinarizer used to convert an image into a binary 2D array
+     * @param groupFinder the BinaryGroupFinder used to find connected white pixel groups in the binary array
+     * @param listener the listener to report to, or null to measure nothing
+     * @param downsample 1 for full resolution, or 2, 4 or 8 for the width and height of the blocks
+     * @param refine true to give exact sizes and centroids, false to scale up the downsampled groups
+     */
+    public BinarizingImageGroupFinder(ImageBinarizer binarizer, BinaryGroupFinder groupFinder, PipelineListener listener,
+            int downsample, boolean refine) {
+        if (downsample != 1 && downsample != 2 && downsample != 4 && downsample != 8) {
+            throw new IllegalArgumentException("Downsample factor must be 1, 2, 4 or 8");
+        }
         this.binarizer = binarizer;
         this.groupFinder = groupFinder;
+        this.listener = listener;
+        this.downsample = downsample;
+        this.refine = refine;
     }
 
     /**
@@ -40,10 +105,344 @@ public class BinarizingImageGroupFinder implements ImageGroupFinder {
         if (image == null) {
             throw new IllegalArgumentException("Image cannot be null");
         }
-        
+        if (downsample > 1) {
+            return findPyramidGroups(image, GroupQuery.ALL);
+        }
+
+        StageTimer binarize = StageTimer.start(listener, PipelineStage.BINARIZE);
         int[][] binaryArray = binarizer.toBinaryArray(image);
+        binarize.finish(pixels(image), 0);
+
+        StageTimer label = StageTimer.start(listener, PipelineStage.LABEL);
         List<Group> groups = groupFinder.findConnectedGroups(binaryArray);
+        label.finish(pixels(image), groups);
+
+        return groups;
+    }
+
+    /**
+     * Finds the connected groups of white pixels the query asks for. The query is passed on to
+     * the BinaryGroupFinder so that it can drop unwanted groups as it finds them.
+     *
+     * @param image the input BufferedImage to process
+     * @param query which groups to keep
+     * @return the kept groups in descending order
+     */
+    @Override
+    public List<Group> findConnectedGroups(BufferedImage image, GroupQuery query) {
+        if (image == null) {
+            throw new IllegalArgumentException("Image cannot be null");
+        }
+        if (downsample > 1) {
+            if (query == null) {
+                throw new IllegalArgumentException("Query cannot be null");
+            }
+            return findPyramidGroups(image, query);
+        }
 
+        StageTimer binarize = StageTimer.start(listener, PipelineStage.BINARIZE);
+        int[][] binaryArray = binarizer.toBinaryArray(image);
+        binarize.finish(pixels(image), 0);
+
+        StageTimer label = StageTimer.start(listener, PipelineStage.LABEL);
+        List<Group> groups = groupFinder.findConnectedGroups(binaryArray, query);
+        label.finish(pixels(image), groups);
         return groups;
     }
+
+    /**
+     * Finds the connected groups the query asks for among the pixels inside a region of interest,
+     * rectangular or polygonal. Only the region's bounds are binarized and labeled, and the centroids
+     * are reported in full-image coordinates.
+     *
+     * @param image the input BufferedImage to process
+     * @param region the part of the image to search
+     * @param query which groups to keep
+     * @return the kept groups in descending order
+     */
+    @Override
+    public List<Group> findConnectedGroups(BufferedImage image, RegionOfInterest region, GroupQuery query) {
+        if (image == null) {
+            throw new IllegalArgumentException("Image cannot be null");
+        }
+        if (region == null || query == null) {
+            throw new IllegalArgumentException("Region and query cannot be null");
+        }
+        Rectangle clip = region.clip(image);
+        if (clip.isEmpty()) {
+            return List.of();
+        }
+        long pixels = (long) clip.width * clip.height;
+
+        StageTimer binarize = StageTimer.start(listener, PipelineStage.BINARIZE);
+        int[][] binaryArray = binarizer.toBinaryArray(image, region);
+        binarize.finish(pixels, 0);
+
+        StageTimer label = StageTimer.start(listener, PipelineStage.LABEL);
+        List<Group> groups = groupFinder.findConnectedGroups(binaryArray, query);
+        label.finish(pixels, groups);
+        return GroupFinderSupport.translate(groups, clip.x, clip.y);
+    }
+
+    // Either binarizes the sampled pixels and scales their groups up, or binarizes every pixel and
+    // refines the candidate regions of the downsampled image
+    private List<Group> findPyramidGroups(BufferedImage image, GroupQuery query) {
+        if (refine) {
+            Refinement refinement = new Refinement(image, query);
+            StageTimer binarize = StageTimer.start(listener, PipelineStage.BINARIZE);
+            refinement.binarize();
+            binarize.finish(pixels(image), 0);
+
+            StageTimer label = StageTimer.start(listener, PipelineStage.LABEL);
+            List<Group> groups = refinement.run();
+            label.finish(pixels(image), groups);
+            return groups;
+        }
+
+        StageTimer binarize = StageTimer.start(listener, PipelineStage.BINARIZE);
+        BufferedImage small = downsample(image);
+        int[][] smallBinary = binarizer.toBinaryArray(small);
+        binarize.finish(pixels(small), 0);
+
+        StageTimer label = StageTimer.start(listener, PipelineStage.LABEL);
+        List<Group> groups = query.apply(scaleUp(groupFinder.findConnectedGroups(smallBinary), image));
+        label.finish(pixels(image), groups);
+        return groups;
+    }
+
+    // The column or row of the full-resolution pixel sampled for a downsampled column or row
+    private int sampled(int coarse, int limit) {
+        return Math.min(coarse * downsample + downsample / 2, limit - 1);
+    }
+
+    // Copies the pixel in the middle of every downsample x downsample block into a small image
+    private BufferedImage downsample(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int smallWidth = (width + downsample - 1) / downsample;
+        int smallHeight = (height + downsample - 1) / downsample;
+
+        BufferedImage small = new BufferedImage(smallWidth, smallHeight, BufferedImage.TYPE_INT_RGB);
+        int[] row = new int[width];
+        int[] smallRow = new int[smallWidth];
+        for (int y = 0; y < smallHeight; y++) {
+            PixelRows.read(image, 0, sampled(y, height), width, row);
+            for (int x = 0; x < smallWidth; x++) {
+                smallRow[x] = row[sampled(x, width)];
+            }
+            small.getRaster().setDataElements(0, y, smallWidth, 1, smallRow);
+        }
+        return small;
+    }
+
+    // Turns groups of the downsampled image into approximate full-resolution groups. Both sizes and
+    // centroids only grow with the downsampled ones, so the groups stay in descending order.
+    private List<Group> scaleUp(List<Group> smallGroups, BufferedImage image) {
+        List<Group> groups = new ArrayList<>(smallGroups.size());
+        for (Group group : smallGroups) {
+            Coordinate centroid = group.centroid();
+            groups.add(new Group(group.size() * downsample * downsample, new Coordinate(
+                    sampled(centroid.x(), image.getWidth()), sampled(centroid.y(), image.getHeight()))));
+        }
+        return groups;
+    }
+
+    private static long pixels(BufferedImage image) {
+        return (long) image.getWidth() * image.getHeight();
+    }
+
+    /**
+     * Finds the exact full-resolution groups by labeling the blocks that hold any white pixel into
+     * candidate regions and flood filling the regions a query could still want.
+     */
+    private final class Refinement {
+        private final BufferedImage image;
+        private final GroupCollector groups;
+        private final int width;
+        private final int height;
+        private final int blocksX;
+        private final int blocksY;
+        // The white pixels of each block, in row-major block order
+        private final int[] whiteCounts;
+        private final BinaryMask white;
+        private final BinaryMask visited;
+        private final boolean eightConnected;
+        // Seeds still to fill, as (x, y) pairs of pixels or blocks
+        private int[] stack = new int[256];
+        private int size;
+
+        Refinement(BufferedImage image, GroupQuery query) {
+            this.image = image;
+            this.groups = new GroupCollector(query);
+            this.width = image.getWidth();
+            this.height = image.getHeight();
+            this.blocksX = (width + downsample - 1) / downsample;
+            this.blocksY = (height + downsample - 1) / downsample;
+            this.whiteCounts = new int[blocksX * blocksY];
+            this.white = new BinaryMask(width, height);
+            this.visited = new BinaryMask(width, height);
+            this.eightConnected = groupFinder.connectivity() == Connectivity.EIGHT;
+        }
+
+        // Binarizes the image one band of rows at a time into the white mask, counting the white
+        // pixels of every block on the way
+        void binarize() {
+            for (int top = 0; top < height; top += BAND_HEIGHT) {
+                int[][] band = binarizer.toBinaryArray(
+                        image.getSubimage(0, top, width, Math.min(BAND_HEIGHT, height - top)));
+                for (int by = 0; by < band.length; by++) {
+                    int y = top + by;
+                    int[] row = band[by];
+                    int blockRow = (y / downsample) * blocksX;
+                    for (int x = 0; x < width; x++) {
+                        if (row[x] == 1) {
+                            white.set(x, y);
+                            whiteCounts[blockRow + x / downsample]++;
+                        }
+                    }
+                }
+            }
+        }
+
+        List<Group> run() {
+            // Label the white blocks into regions, listing each region's blocks one after another.
+            // Pixels that touch lie in the same or touching blocks, so no group spans two regions.
+            int[] regionBlocks = new int[whiteCounts.length];
+            int[] regionStarts = new int[16];
+            long[] regionsBySize = new long[16];
+            boolean[] labeled = new boolean[whiteCounts.length];
+            int blockCount = 0;
+            int regionCount = 0;
+            for (int block = 0; block < whiteCounts.length; block++) {
+                if (whiteCounts[block] == 0 || labeled[block]) continue;
+
+                if (regionCount + 1 == regionStarts.length) {
+                    regionStarts = Arrays.copyOf(regionStarts, regionStarts.length * 2);
+                    regionsBySize = Arrays.copyOf(regionsBySize, regionsBySize.length * 2);
+                }
+                regionStarts[regionCount] = blockCount;
+                long whiteTotal = 0;
+                size = 0;
+                push(block % blocksX, block / blocksX);
+                while (size > 0) {
+                    int by = stack[--size];
+                    int bx = stack[--size];
+                    int index = by * blocksX + bx;
+                    if (labeled[index]) continue;
+
+                    labeled[index] = true;
+                    regionBlocks[blockCount++] = index;
+                    whiteTotal += whiteCounts[index];
+                    for (int dy = -1; dy <= 1; dy++) {
+                        for (int dx = -1; dx <= 1; dx++) {
+                            if (dx != 0 && dy != 0 && !eightConnected) continue;
+                            int nx = bx + dx;
+                            int ny = by + dy;
+                            if (nx >= 0 && nx < blocksX && ny >= 0 && ny < blocksY
+                                    && whiteCounts[ny * blocksX + nx] != 0 && !labeled[ny * blocksX + nx]) {
+                                push(nx, ny);
+                            }
+                        }
+                    }
+                }
+                // A region's white total in the high half and its number in the low half
+                regionsBySize[regionCount] = whiteTotal << 32 | regionCount;
+                regionCount++;
+            }
+            regionStarts[regionCount] = blockCount;
+
+            // Refine the regions with the most white pixels first, until the query wants no group
+            // as large as a whole region
+            Arrays.sort(regionsBySize, 0, regionCount);
+            for (int i = regionCount - 1; i >= 0; i--) {
+                if (!groups.wants((int) (regionsBySize[i] >>> 32))) break;
+
+                int region = (int) regionsBySize[i];
+                for (int b = regionStarts[region]; b < regionStarts[region + 1]; b++) {
+                    fillBlock(regionBlocks[b]);
+                }
+            }
+            return groups.result();
+        }
+
+        // Fills every group with an unvisited white pixel in the given block
+        private void fillBlock(int block) {
+            int left = (block % blocksX) * downsample;
+            int top = (block / blocksX) * downsample;
+            for (int y = top; y < Math.min(height, top + downsample); y++) {
+                for (int x = left; x < Math.min(width, left + downsample); x++) {
+                    if (white.get(x, y) && !visited.get(x, y)) {
+                        fill(x, y);
+                    }
+                }
+            }
+        }
+
+        // Fills the full-resolution group containing (startX, startY) one horizontal span at a time,
+        // like ScanlineBinaryGroupFinder, and offers it to the collector
+        private void fill(int startX, int startY) {
+            int count = 0;
+            long sumX = 0;
+            long sumY = 0;
+
+            size = 0;
+            push(startX, startY);
+            while (size > 0) {
+                int y = stack[--size];
+                int x = stack[--size];
+                if (visited.get(x, y)) continue;
+
+                int left = x;
+                while (left > 0 && !visited.get(left - 1, y) && white.get(left - 1, y)) {
+                    left--;
+                }
+                int right = x;
+                while (right < width - 1 && !visited.get(right + 1, y) && white.get(right + 1, y)) {
+                    right++;
+                }
+                for (int i = left; i <= right; i++) {
+                    visited.set(i, y);
+                }
+
+                int length = right - left + 1;
+                count += length;
+                sumX += (long) (left + right) * length / 2;
+                sumY += (long) y * length;
+
+                int from = eightConnected ? Math.max(0, left - 1) : left;
+                int to = eightConnected ? Math.min(width - 1, right + 1) : right;
+                if (y > 0) {
+                    pushSpanSeeds(from, to, y - 1);
+                }
+                if (y < height - 1) {
+                    pushSpanSeeds(from, to, y + 1);
+                }
+            }
+
+            groups.add(count, sumX, sumY);
+        }
+
+        // Pushes one seed for every run of unvisited white pixels in row y between left and right
+        private void pushSpanSeeds(int left, int right, int y) {
+            int x = left;
+            while (x <= right) {
+                if (!visited.get(x, y) && white.get(x, y)) {
+                    push(x, y);
+                    while (x <= right && !visited.get(x, y) && white.get(x, y)) {
+                        x++;
+                    }
+                } else {
+                    x++;
+                }
+            }
+        }
+
+        private void push(int x, int y) {
+            if (size + 2 > stack.length) {
+                stack = Arrays.copyOf(stack, stack.length * 2);
+            }
+            stack[size++] = x;
+            stack[size++] = y;
+        }
+    }
 }
@@ -1,7 +1,9 @@
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.awt.image.BufferedImage;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -93,6 +95,136 @@ public class BinarizingImageGroupFinderTest {
                 "Should return same list as group finder");
     }
 
+    // A listener hears about the binarize and label stages, in order
+    @Test
+    void testFindConnectedGroups_ReportsStagesToListener() {
+        List<StageMetrics> reported = new ArrayList<>();
+        BinarizingImageGroupFinder instrumented =
+                new BinarizingImageGroupFinder(fakeBinarizer, fakeGroupFinder, reported::add);
+        BufferedImage img = new BufferedImage(3, 2, BufferedImage.TYPE_INT_RGB);
+        fakeBinarizer.binaryToReturn = new int[][] {{1, 0, 1}, {0, 0, 1}};
+        List<Group> expectedGroups = List.of(
+                new Group(2, new Coordinate(2, 0)),
+                new Group(1, new Coordinate(0, 0))
+        );
+        fakeGroupFinder.groupsToReturn = expectedGroups;
+
+        assertEquals(expectedGroups, instrumented.findConnectedGroups(img));
+
+        assertEquals(2, reported.size());
+        assertEquals(PipelineStage.BINARIZE, reported.get(0).stage());
+        assertEquals(6, reported.get(0).pixels());
+        assertEquals(PipelineStage.LABEL, reported.get(1).stage());
+        assertEquals(2, reported.get(1).groups());
+        assertTrue(reported.get(1).nanos() >= 0);
+    }
+
+    /** Builds a black image with random white rectangles at least minSide pixels wide and tall. */
+    private static BufferedImage randomRectangles(Random random, int width, int height, int minSide) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int i = 0; i < 8; i++) {
+            int w = minSide + random.nextInt(20);
+            int h = minSide + random.nextInt(20);
+            int left = random.nextInt(width - minSide + 1);
+            int top = random.nextInt(height - minSide + 1);
+            for (int y = top; y < Math.min(height, top + h); y++) {
+                for (int x = left; x < Math.min(width, left + w); x++) {
+                    image.setRGB(x, y, 0xFFFFFF);
+                }
+            }
+        }
+        return image;
+    }
+
+    /** With refinement, rectangles of every size come back exactly. */
+    @Test
+    void testPyramidRefinementIsExact() {
+        DistanceImageBinarizer binarizer = new DistanceImageBinarizer(new EuclideanColorDistance(), 0xFFFFFF, 10);
+        Random random = new Random(25);
+        for (Connectivity connectivity : Connectivity.values()) {
+            BinaryGroupFinder labeler = new ScanlineBinaryGroupFinder(connectivity);
+            ImageGroupFinder full = new BinarizingImageGroupFinder(binarizer, labeler);
+            for (int downsample : new int[] {2, 4, 8}) {
+                ImageGroupFinder pyramid = new BinarizingImageGroupFinder(binarizer, labeler, null, downsample, true);
+                for (int trial = 0; trial < 10; trial++) {
+                    BufferedImage image = randomRectangles(random, 70 + random.nextInt(100), 70 + random.nextInt(100),
+                            downsample);
+                    assertEquals(full.findConnectedGroups(image), pyramid.findConnectedGroups(image));
+                    GroupQuery query = new GroupQuery(100, 2);
+                    assertEquals(full.findConnectedGroups(image, query), pyramid.findConnectedGroups(image, query));
+                }
+            }
+        }
+    }
+
+    /** With refinement, noise full of groups far smaller than a block still comes back exactly. */
+    @Test
+    void testPyramidRefinementIsExactOnNoise() {
+        DistanceImageBinarizer binarizer = new DistanceImageBinarizer(new EuclideanColorDistance(), 0xFFFFFF, 10);
+        Random random = new Random(26);
+        GroupQuery[] queries = {GroupQuery.ALL, new GroupQuery(5, Integer.MAX_VALUE), new GroupQuery(0, 3),
+                new GroupQuery(2, 10), new GroupQuery(0, 0), new GroupQuery(10_000, 5)};
+        for (Connectivity connectivity : Connectivity.values()) {
+            ImageGroupFinder full = new BinarizingImageGroupFinder(binarizer, new ReferenceBinaryGroupFinder(connectivity));
+            for (int downsample : new int[] {2, 4, 8}) {
+                ImageGroupFinder refined = new BinarizingImageGroupFinder(binarizer,
+                        new ScanlineBinaryGroupFinder(connectivity), null, downsample, true);
+                for (int trial = 0; trial < 5; trial++) {
+                    BufferedImage image = TestImages.randomBlackAndWhiteImage(random,
+                            1 + random.nextInt(150), 1 + random.nextInt(100), 0.05 + 0.2 * trial);
+                    for (GroupQuery query : queries) {
+                        assertEquals(full.findConnectedGroups(image, query), refined.findConnectedGroups(image, query),
+                                connectivity + " 1/" + downsample + " " + query);
+                    }
+                }
+            }
+        }
+    }
+
+    /** A long line one pixel wide between sampled rows is the top group with refinement, but missed without it. */
+    @Test
+    void testPyramidTopQueryFindsThinLine() {
+        DistanceImageBinarizer binarizer = new DistanceImageBinarizer(new EuclideanColorDistance(), 0xFFFFFF, 10);
+        BufferedImage image = new BufferedImage(64, 48, BufferedImage.TYPE_INT_RGB);
+        for (int x = 0; x < 64; x++) {
+            image.setRGB(x, 4, 0xFFFFFF);
+        }
+        for (int y = 30; y < 34; y++) {
+            for (int x = 40; x < 44; x++) {
+                image.setRGB(x, y, 0xFFFFFF);
+            }
+        }
+
+        GroupQuery top = new GroupQuery(0, 1);
+        ImageGroupFinder full = new BinarizingImageGroupFinder(binarizer, new ScanlineBinaryGroupFinder());
+        ImageGroupFinder refined = new BinarizingImageGroupFinder(binarizer, new ScanlineBinaryGroupFinder(), null, 4, true);
+        ImageGroupFinder scaled = new BinarizingImageGroupFinder(binarizer, new ScanlineBinaryGroupFinder(), null, 4, false);
+        assertEquals(List.of(new Group(64, new Coordinate(31, 4))), full.findConnectedGroups(image, top));
+        assertEquals(full.findConnectedGroups(image, top), refined.findConnectedGroups(image, top));
+        assertEquals(List.of(new Group(16, new Coordinate(42, 30))), scaled.findConnectedGroups(image, top));
+    }
+
+    /** Without refinement, sizes and centroids are scaled up from the downsampled image. */
+    @Test
+    void testPyramidWithoutRefinement() {
+        DistanceImageBinarizer binarizer = new DistanceImageBinarizer(new EuclideanColorDistance(), 0xFFFFFF, 10);
+        BufferedImage image = new BufferedImage(64, 48, BufferedImage.TYPE_INT_RGB);
+        for (int y = 8; y < 24; y++) {
+            for (int x = 16; x < 48; x++) {
+                image.setRGB(x, y, 0xFFFFFF);
+            }
+        }
+        image.setRGB(60, 40, 0xFFFFFF);
+
+        ImageGroupFinder pyramid = new BinarizingImageGroupFinder(binarizer, new ScanlineBinaryGroupFinder(), null, 4, false);
+        // The block centers sampled are 2, 6, 10, ..., so the lone pixel is missed
+        assertEquals(List.of(new Group(512, new Coordinate(30, 14))), pyramid.findConnectedGroups(image));
+        assertEquals(List.of(), pyramid.findConnectedGroups(image, new GroupQuery(600, 1)));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> new BinarizingImageGroupFinder(binarizer, new ScanlineBinaryGroupFinder(), null, 3, true));
+    }
+
     // Fake dependencies
     private static class FakeBinarizer implements ImageBinarizer {
         BufferedImage receivedImage;
@@ -9,7 +9,9 @@ public interface BinaryGroupFinder {
     * is thrown. If the array is otherwise invalid, an IllegalArgumentException
     * is thrown.
     *
-    * Pixels are considered connected vertically and horizontally, NOT diagonally.
+    * Pixels are considered connected vertically and horizontally, NOT diagonally,
+    * unless the finder's connectivity() is Connectivity.EIGHT, in which case
+    * diagonal neighbors are connected as well.
     * The top-left cell of the array (row:0, column:0) is considered to be coordinate
     * (x:0, y:0). Y increases downward and X increases to the right. For example,
     * (row:4, column:7) corresponds to (x:7, y:4).
@@ -26,10 +28,73 @@ public interface BinaryGroupFinder {
     * The groups are sorted in DESCENDING order according to Group's compareTo method
     * (size first, then x, then y). That is, the largest group will be first, the 
     * smallest group will be last, and ties will be broken first by descending 
-    * y value, then descending x value.
+    * x value, then descending y value.
     * 
     * @param image a rectangular 2D array containing only 1s and 0s
     * @return the found groups of connected pixels in descending order
     */
    public List<Group> findConnectedGroups(int[][] image);
+
+   /**
+    * Returns which neighboring pixels this finder treats as connected. Implementations
+    * that can be constructed with Connectivity.EIGHT override this.
+    *
+    * @return the connectivity, Connectivity.FOUR by default
+    */
+   public default Connectivity connectivity() {
+      return Connectivity.FOUR;
+   }
+
+   /**
+    * Finds only the connected pixel groups the query asks for: those with at least
+    * query.minSize() pixels, and of those at most query.limit() of the largest.
+    *
+    * Otherwise follows exactly the same contract as findConnectedGroups(int[][]).
+    * The default implementation finds and sorts every group and then applies the query,
+    * so implementations should override it to drop unwanted groups as they are found.
+    *
+    * @param image a rectangular 2D array containing only 1s and 0s
+    * @param query which groups to keep
+    * @return the kept groups in descending order
+    */
+   public default List<Group> findConnectedGroups(int[][] image, GroupQuery query) {
+      if (query == null) {
+         throw new IllegalArgumentException("Query cannot be null");
+      }
+      return query.apply(findConnectedGroups(image));
+   }
+
+   /**
+    * Finds connected pixel groups of white pixels in a bit-packed BinaryMask.
+    *
+    * Follows exactly the same contract as findConnectedGroups(int[][]), which is not
+    * overloaded so that existing calls passing null stay unambiguous. The default
+    * implementation converts the mask to an array, so implementations should
+    * override it to work on the packed words directly.
+    *
+    * @param mask the binary mask to search
+    * @return the found groups of connected pixels in descending order
+    * @throws NullPointerException if the mask is null
+    */
+   public default List<Group> findConnectedGroupsInMask(BinaryMask mask) {
+      if (mask == null) {
+         throw new NullPointerException("Cannot be null");
+      }
+      return findConnectedGroups(mask.toArray());
+   }
+
+   /**
+    * Finds only the connected pixel groups the query asks for in a bit-packed BinaryMask.
+    *
+    * @param mask the binary mask to search
+    * @param query which groups to keep
+    * @return the kept groups in descending order
+    * @throws NullPointerException if the mask is null
+    */
+   public default List<Group> findConnectedGroupsInMask(BinaryMask mask, GroupQuery query) {
+      if (mask == null) {
+         throw new NullPointerException("Cannot be null");
+      }
+      return findConnectedGroups(mask.toArray(), query);
+   }
 }
\ No newline at end of file
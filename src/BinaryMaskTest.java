@@ -0,0 +1,95 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for BinaryMask and the BinaryMask overloads on ImageBinarizer and BinaryGroupFinder.
+ */
+public class BinaryMaskTest {
+
+    /** Converting to a mask and back gives the same array, including widths around word boundaries. */
+    @Test
+    void testArrayRoundTrip() {
+        Random random = new Random(1);
+        for (int width : new int[] {1, 63, 64, 65, 128, 130}) {
+            int[][] image = TestImages.randomMask(random, width, 5, 0.5);
+            assertArrayEquals(image, BinaryMask.fromArray(image).toArray(), "Width " + width);
+        }
+    }
+
+    /** Every row starts on its own word, so a pixel never spills into the next row. */
+    @Test
+    void testRowsAreWordAligned() {
+        BinaryMask mask = new BinaryMask(65, 3);
+        assertEquals(2, mask.wordsPerRow());
+
+        mask.set(64, 0);
+        mask.set(0, 1);
+        assertEquals(1L, mask.word(0, 1));
+        assertEquals(1L, mask.word(1, 0));
+        assertEquals(0L, mask.word(1, 1));
+        assertTrue(mask.get(64, 0));
+        assertFalse(mask.get(0, 2));
+        assertEquals(2, mask.countWhite());
+
+        mask.clear(64, 0);
+        assertFalse(mask.get(64, 0));
+    }
+
+    /** A copy is independent of the original. */
+    @Test
+    void testCopyIsIndependent() {
+        BinaryMask mask = new BinaryMask(4, 4);
+        mask.set(1, 1);
+        BinaryMask copy = mask.copy();
+        assertEquals(mask, copy);
+
+        copy.clear(1, 1);
+        assertTrue(mask.get(1, 1));
+        assertNotEquals(mask, copy);
+    }
+
+    /** Empty or invalid arrays cannot become masks. */
+    @Test
+    void testInvalidArrays() {
+        assertThrows(NullPointerException.class, () -> BinaryMask.fromArray(null));
+        assertThrows(IllegalArgumentException.class, () -> BinaryMask.fromArray(new int[0][0]));
+        assertThrows(IllegalArgumentException.class, () -> BinaryMask.fromArray(new int[][] {{1, 0}, {1}}));
+        assertThrows(IllegalArgumentException.class, () -> new BinaryMask(0, 5));
+    }
+
+    /** The default group finder overload goes through the int[][] adapter. */
+    @Test
+    void testDefaultGroupFinderOverload() {
+        int[][] image = TestImages.randomMask(new Random(2), 70, 30, 0.5);
+        BinaryGroupFinder finder = new DfsBinaryGroupFinder();
+        List<Group> expected = finder.findConnectedGroups(image);
+
+        assertEquals(expected, finder.findConnectedGroupsInMask(BinaryMask.fromArray(image)));
+        assertEquals(expected, new UnionFindBinaryGroupFinder().findConnectedGroupsInMask(BinaryMask.fromArray(image)));
+    }
+
+    /** The 1-bit image of a mask matches the one built from the equivalent array. */
+    @Test
+    void testToBinaryImage() {
+        Random random = new Random(6);
+        DistanceImageBinarizer binarizer = new DistanceImageBinarizer(new EuclideanColorDistance(), 0, 1);
+        for (int width : new int[] {1, 8, 63, 64, 65, 130}) {
+            int[][] image = TestImages.randomMask(random, width, 5, 0.5);
+            BufferedImage fromMask = BinaryMask.fromArray(image).toBinaryImage();
+            BufferedImage fromArray = binarizer.toBinaryImage(image);
+
+            assertEquals(BufferedImage.TYPE_BYTE_BINARY, fromMask.getType());
+            for (int y = 0; y < 5; y++) {
+                for (int x = 0; x < width; x++) {
+                    assertEquals(fromArray.getRGB(x, y), fromMask.getRGB(x, y));
+                    assertEquals(image[y][x] == 1 ? 0xFFFFFFFF : 0xFF000000, fromMask.getRGB(x, y));
+                }
+            }
+        }
+    }
+}
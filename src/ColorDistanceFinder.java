@@ -17,4 +17,20 @@ public interface ColorDistanceFinder {
      * @return the computed distance between the two colors
      */
     public double distance(int colorA, int colorB);
+
+    /**
+     * Decides whether the distance between two colors is less than a threshold.
+     *
+     * This always gives the same answer as distance(colorA, colorB) < threshold. Implementations
+     * can override it with a cheaper test when one exists, for example by comparing squared
+     * distances with integer arithmetic instead of taking a square root.
+     *
+     * @param colorA the first color as a 24-bit hex RGB integer
+     * @param colorB the second color as a 24-bit hex RGB integer
+     * @param threshold the distance the colors must be closer than
+     * @return true if the distance between the colors is less than the threshold
+     */
+    public default boolean withinThreshold(int colorA, int colorB, int threshold) {
+        return distance(colorA, colorB) < threshold;
+    }
 }
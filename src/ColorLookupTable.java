@@ -0,0 +1,81 @@
+import java.util.stream.IntStream;
+
+/**
+ * A precomputed answer, for every one of the 2^24 RGB colors, to whether that color is within a
+ * threshold distance of a target color.
+ *
+ * The answers are packed one bit per color into a 2 MB long[] bitset, so after the table is built
+ * classifying a pixel is a single bit lookup no matter how expensive the ColorDistanceFinder is.
+ * Building the table evaluates the finder once per color, split across the common ForkJoinPool.
+ *
+ * A table never changes once built, so one table can be kept and shared by any number of images
+ * and threads for as long as the target color and threshold stay the same.
+ */
+public final class ColorLookupTable {
+    private static final int COLOR_COUNT = 1 << 24;
+
+    private final int targetColor;
+    private final int threshold;
+    private final long[] bits;
+
+    private ColorLookupTable(int targetColor, int threshold, long[] bits) {
+        this.targetColor = targetColor;
+        this.threshold = threshold;
+        this.bits = bits;
+    }
+
+    /**
+     * Builds the table for the given distance finder, target color and threshold.
+     *
+     * The finder is called from several threads at once, so it must not keep any state between calls.
+     *
+     * @param distanceFinder an object that computes the distance between two colors
+     * @param targetColor the reference color as a 24-bit hex RGB integer (0xRRGGBB)
+     * @param threshold colors closer than this to the target color are in the table
+     * @return the finished table
+     */
+    public static ColorLookupTable build(ColorDistanceFinder distanceFinder, int targetColor, int threshold) {
+        if (distanceFinder == null) {
+            throw new IllegalArgumentException("Distance finder cannot be null");
+        }
+
+        long[] bits = new long[COLOR_COUNT / 64];
+        // Each task fills whole words, so no two threads ever write the same word
+        IntStream.range(0, bits.length).parallel().forEach(word -> {
+            int firstColor = word << 6;
+            long value = 0;
+            for (int bit = 0; bit < 64; bit++) {
+                if (distanceFinder.withinThreshold(firstColor + bit, targetColor, threshold)) {
+                    value |= 1L << bit;
+                }
+            }
+            bits[word] = value;
+        });
+        return new ColorLookupTable(targetColor, threshold, bits);
+    }
+
+    /**
+     * Returns whether the color is within the threshold distance of the target color.
+     *
+     * @param color a 24-bit hex RGB integer (0xRRGGBB); any alpha bits are ignored
+     * @return true if the color is closer to the target color than the threshold
+     */
+    public boolean contains(int color) {
+        color &= 0xFFFFFF;
+        return (bits[color >>> 6] & (1L << color)) != 0;
+    }
+
+    /**
+     * @return the target color the table was built for
+     */
+    public int targetColor() {
+        return targetColor;
+    }
+
+    /**
+     * @return the threshold the table was built for
+     */
+    public int threshold() {
+        return threshold;
+    }
+}
@@ -0,0 +1,24 @@
+/**
+ * Which neighboring pixels count as touching when white pixels are grouped.
+ */
+public enum Connectivity {
+    /** Pixels touch only vertically and horizontally: up, down, left and right. */
+    FOUR,
+    /** Pixels also touch diagonally, so a group can be a line one pixel wide at any angle. */
+    EIGHT;
+
+    /**
+     * Looks up a connectivity by its number of neighbors.
+     *
+     * @param neighbors 4 or 8
+     * @return the connectivity
+     * @throws IllegalArgumentException if neighbors is neither 4 nor 8
+     */
+    public static Connectivity of(int neighbors) {
+        return switch (neighbors) {
+            case 4 -> FOUR;
+            case 8 -> EIGHT;
+            default -> throw new IllegalArgumentException("Connectivity must be 4 or 8");
+        };
+    }
+}
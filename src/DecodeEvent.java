@@ -0,0 +1,12 @@
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A JFR event for reading and decoding one input image.
+ */
+@Name("centroidfinder.Decode")
+@Label("Image Decode")
+@Description("Reading and decoding an input image")
+final class DecodeEvent extends PipelineEvent {
+}
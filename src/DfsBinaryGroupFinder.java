@@ -1,8 +1,32 @@
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Stack;
 
+/**
+ * The default BinaryGroupFinder. It used to search each group depth first, pushing a new int[2]
+ * onto a Stack for every neighbor of every pixel; it now fills groups a span at a time with a
+ * ScanlineBinaryGroupFinder, which finds exactly the same groups without allocating per pixel.
+ */
 public class DfsBinaryGroupFinder implements BinaryGroupFinder {
+    private final ScanlineBinaryGroupFinder fill;
+
+    /**
+     * Constructs a DfsBinaryGroupFinder that connects pixels vertically and horizontally.
+     */
+    public DfsBinaryGroupFinder() {
+        this(Connectivity.FOUR);
+    }
+
+    /**
+     * Constructs a DfsBinaryGroupFinder with the given connectivity.
+     *
+     * @param connectivity which neighboring pixels are connected
+     */
+    public DfsBinaryGroupFinder(Connectivity connectivity) {
+        if (connectivity == null) {
+            throw new IllegalArgumentException("Connectivity cannot be null");
+        }
+        this.fill = new ScanlineBinaryGroupFinder(connectivity);
+    }
+
    /**
     * Finds connected pixel groups of 1s in an integer array representing a binary image.
     * 
@@ -11,7 +35,8 @@ public class DfsBinaryGroupFinder implements BinaryGroupFinder {
     * is thrown. If the array is otherwise invalid, an IllegalArgumentException
     * is thrown.
     *
-    * Pixels are considered connected vertically and horizontally, NOT diagonally.
+    * Pixels are considered connected vertically and horizontally, NOT diagonally,
+    * unless this finder was constructed with Connectivity.EIGHT.
     * The top-left cell of the array (row:0, column:0) is considered to be coordinate
     * (x:0, y:0). Y increases downward and X increases to the right. For example,
     * (row:4, column:7) corresponds to (x:7, y:4).
@@ -28,98 +53,31 @@ public class DfsBinaryGroupFinder implements BinaryGroupFinder {
     * The groups are sorted in DESCENDING order according to Group's compareTo method
     * (size first, then x, then y). That is, the largest group will be first, the 
     * smallest group will be last, and ties will be broken first by descending 
-    * y value, then descending x value.
+    * x value, then descending y value.
     * 
     * @param image a rectangular 2D array containing only 1s and 0s
     * @return the found groups of connected pixels in descending order
     */
     @Override
     public List<Group> findConnectedGroups(int[][] image) {
-
-        if (image == null) {
-            throw new NullPointerException("Cannot be null");
-        }
-        if (image.length == 0 || image[0].length == 0) {
-            return new ArrayList<>();
-        }
-
-        int cols = image[0].length;
-        for (int[] row : image) {
-            if (row == null) {
-                throw new NullPointerException("Row cannot be null.");
-            }
-            if (row.length != cols) {
-                throw new IllegalArgumentException("Must have the same length!");
-            }
-        }
-
-        int rows = image.length;
-        boolean[][] visited = new boolean[rows][cols];
-        List<Group> groups = new ArrayList<>();
-
-        // This will loop through the group
-        for (int y = 0; y < rows; y++) {
-            for (int x = 0; x < cols; x++) {
-                if (image[y][x] == 1 && !visited[y][x]) {
-                    // Note: Call the helper here and implement later!
-                    Group group = exploredPix(image, visited, x, y);
-                    groups.add(group);
-                }
-            }
-        }
-
-        // This sorts it by descending order
-        for (int i = 0; i < groups.size() - 1; i++) {
-            for (int j = i + 1; j < groups.size(); j++) {
-            Group group1 = groups.get(i);
-            Group group2 = groups.get(j);
-
-                if (group2.size() > group1.size() ||
-                    (group2.size() == group1.size() && group2.centroid().y() > group1.centroid().y()) ||
-                    (group2.size() == group1.size() && group2.centroid().y() == group1.centroid().y() && group2.centroid().x() > group1.centroid().x())) {
-
-                    groups.set(i, group2);
-                    groups.set(j, group1);
-                }
-            }
-        }
-        return groups;
+        return findConnectedGroups(image, GroupQuery.ALL);
     }
 
-    // This helper will explore the group or each pixel
-    private Group exploredPix(int[][] image, boolean[][] visited, int startX, int startY){
-        Stack<int[]> connected = new Stack<>();
-        connected.push(new int[]{startX, startY});
-
-        int sumX = 0;
-        int sumY = 0;
-        int count = 0;
-
-        while(!connected.isEmpty()){
-            int[] current = connected.pop();
-            int x = current[0];
-            int y = current[1];
-
-            if (x < 0 || x >= image[0].length || y < 0 || y >= image.length) continue;
-            if (visited[y][x]) continue;
-            if (image[y][x] == 0) continue;
-
-            visited[y][x] = true;
-            sumX += x;
-            sumY += y;
-            count++;
-
-            // Check all the neighbors (up, down, left, right)
-            connected.push(new int[]{x, y - 1});
-            connected.push(new int[]{x, y + 1});
-            connected.push(new int[]{x - 1, y});
-            connected.push(new int[]{x + 1, y});
-        } 
-        // Integer division
-        int centerX = sumX / count;
-        int centerY = sumY / count;
+    /**
+     * Finds the connected groups the query asks for. Groups the query rejects are
+     * dropped as soon as they are filled instead of being sorted with the rest.
+     *
+     * @param image a rectangular 2D array containing only 1s and 0s
+     * @param query which groups to keep
+     * @return the kept groups in descending order
+     */
+    @Override
+    public List<Group> findConnectedGroups(int[][] image, GroupQuery query) {
+        return fill.findConnectedGroups(image, query);
+    }
 
-        return new Group(count, new Coordinate(centerX, centerY));
+    @Override
+    public Connectivity connectivity() {
+        return fill.connectivity();
     }
-    
 }
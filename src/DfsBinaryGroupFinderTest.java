@@ -1,8 +1,17 @@
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.awt.image.BufferedImage;
 import java.beans.Transient;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
+
+import javax.imageio.ImageIO;
 
 import org.junit.jupiter.api.Test;
 
@@ -45,12 +54,12 @@ public class DfsBinaryGroupFinderTest {
                 {0, 0, 0},
                 {1, 0, 1}
         };
-        // The expected order is (Size DESC, Y DESC, X DESC)
+        // The expected order is (Size DESC, X DESC, Y DESC), as in Group's compareTo
     List<Group> expected = Arrays.asList( 
             
             new Group(1, new Coordinate(2, 2)), 
-            new Group(1, new Coordinate(0, 2)), 
             new Group(1, new Coordinate(2, 0)), 
+            new Group(1, new Coordinate(0, 2)), 
             new Group(1, new Coordinate(0, 0))
     );
     // Since List.of() returns an immutable list, we should wrap Arrays.asList if needed
@@ -81,6 +90,86 @@ public class DfsBinaryGroupFinderTest {
 
     assertEquals(expected, finder.findConnectedGroups(image));
 }
+    /** Thousands of equal-size groups should be ordered by descending x, then descending y. */
+    @Test
+    void testManyEqualSizeGroupsOrderedByXThenY() {
+        // Isolated pixels on every other row and column, enough groups to use the parallel sort
+        int size = 600;
+        int[][] image = new int[size][size];
+        for (int y = 0; y < size; y += 2) {
+            for (int x = 0; x < size; x += 2) {
+                image[y][x] = 1;
+            }
+        }
+
+        List<Group> groups = finder.findConnectedGroups(image);
+        assertEquals((size / 2) * (size / 2), groups.size());
+
+        int i = 0;
+        for (int x = size - 2; x >= 0; x -= 2) {
+            for (int y = size - 2; y >= 0; y -= 2) {
+                assertEquals(new Group(1, new Coordinate(x, y)), groups.get(i++));
+            }
+        }
+    }
+
+    /** Equal-size groups from the sample image come out in the same order as sampleOutput/groups.csv. */
+    @Test
+    void testSampleImageMatchesSampleOutputOrder() throws IOException {
+        BufferedImage input = ImageIO.read(new File("sampleInput/squares.jpg"));
+        ImageBinarizer binarizer = new DistanceImageBinarizer(new EuclideanColorDistance(), 0xFFA200, 164);
+        List<Group> groups = finder.findConnectedGroups(binarizer.toBinaryArray(input));
+
+        List<String> rows = new ArrayList<>();
+        for (Group group : groups) {
+            rows.add(group.toCsvRow());
+        }
+        assertEquals(Files.readAllLines(Path.of("sampleOutput/groups.csv")), rows);
+    }
+
+    /** Diagonal lines and a checkerboard are one group each with eight-connectivity, many with four. */
+    @Test
+    void testEightConnectivityDiagonals() {
+        DfsBinaryGroupFinder eight = new DfsBinaryGroupFinder(Connectivity.EIGHT);
+        assertEquals(Connectivity.FOUR, finder.connectivity());
+        assertEquals(Connectivity.EIGHT, eight.connectivity());
+
+        // An X: both diagonals of a 7x7 square, crossing at (3,3)
+        int[][] cross = new int[7][7];
+        for (int i = 0; i < 7; i++) {
+            cross[i][i] = 1;
+            cross[i][6 - i] = 1;
+        }
+        assertEquals(List.of(new Group(13, new Coordinate(3, 3))), eight.findConnectedGroups(cross));
+        assertEquals(13, finder.findConnectedGroups(cross).size());
+
+        int[][] checkerboard = new int[6][9];
+        for (int y = 0; y < 6; y++) {
+            for (int x = 0; x < 9; x++) {
+                checkerboard[y][x] = (x + y) % 2 == 0 ? 1 : 0;
+            }
+        }
+        assertEquals(List.of(new Group(27, new Coordinate(4, 2))), eight.findConnectedGroups(checkerboard));
+        assertEquals(27, finder.findConnectedGroups(checkerboard).size());
+    }
+
+    /** Pixels that touch only at a corner stay apart with four-connectivity. */
+    @Test
+    void testCornerTouching() {
+        int[][] image = {
+                {1, 1, 0, 0},
+                {1, 1, 0, 0},
+                {0, 0, 1, 1},
+                {0, 0, 1, 1}
+        };
+        assertEquals(2, finder.findConnectedGroups(image).size());
+        assertEquals(List.of(new Group(8, new Coordinate(1, 1))),
+                new DfsBinaryGroupFinder(Connectivity.EIGHT).findConnectedGroups(image));
+        assertEquals(Connectivity.EIGHT, Connectivity.of(8));
+        assertThrows(IllegalArgumentException.class, () -> Connectivity.of(6));
+        assertThrows(IllegalArgumentException.class, () -> new DfsBinaryGroupFinder(null));
+    }
+
     /** Null image should throw a NullPointerException. */
     @Test
     void testNullImage() {
@@ -97,4 +186,28 @@ public class DfsBinaryGroupFinderTest {
         };
         assertThrows(IllegalArgumentException.class, () -> finder.findConnectedGroups(image));
     }
+
+    /** Random masks give exactly the groups of the original stack-based DFS, with either connectivity. */
+    @Test
+    void testMatchesReferenceDfs() {
+        Random random = new Random(13);
+        for (Connectivity connectivity : Connectivity.values()) {
+            BinaryGroupFinder dfs = new DfsBinaryGroupFinder(connectivity);
+            BinaryGroupFinder reference = new ReferenceBinaryGroupFinder(connectivity);
+            for (int trial = 0; trial < 20; trial++) {
+                int[][] image = TestImages.randomMask(random, 1 + random.nextInt(50), 1 + random.nextInt(50), 0.5);
+                assertEquals(reference.findConnectedGroups(image), dfs.findConnectedGroups(image));
+            }
+        }
+    }
+
+    /** A group whose coordinate sums pass Integer.MAX_VALUE still gets the right centroid. */
+    @Test
+    void testLargeGroupSumsDoNotOverflow() {
+        int[][] image = new int[40][70_000];
+        for (int[] row : image) {
+            Arrays.fill(row, 1);
+        }
+        assertEquals(List.of(new Group(40 * 70_000, new Coordinate(34_999, 19))), finder.findConnectedGroups(image));
+    }
 }
\ No newline at end of file
@@ -45,6 +45,7 @@ public class DistanceImageBinarizer implements ImageBinarizer {
      */
      //getRGB read the color of the pixel at postion (x,y) and return as 32 bit integer
      //setRGB  writes a color into thhe pixel at position (x,y) using a 32 bit integer
+     //PixelRows reads a whole row from the DataBuffer instead, which skips getRGB's color conversion
 
     @Override
     public int[][] toBinaryArray(BufferedImage image) {
@@ -57,17 +58,15 @@ public class DistanceImageBinarizer implements ImageBinarizer {
         //create binary array holding 0 and 1
         int[][] binaryArray = new int[height][width];
 
+        //one row of pixel colors, read straight from the raster when possible
+        int[] pixels = new int[width];
+
         for (int y = 0; y < height; y++) {
+            //get the row's colors with the alpha bits removed
+            PixelRows.read(image, 0, y, width, pixels);
             for (int x = 0; x < width; x++) {
-                //get 32 bit 
-                //get pixel color at (x,y) and remove alpha bits
-                int pixelColor = image.getRGB(x, y) & 0xFFFFFF; 
-
-                //measure color difference
-                double distance = distanceFinder.distance(pixelColor, targetColor);
-
                 //if color  is close to  target color, set to white (1), else black (0)
-                if (distance < threshold) {
+                if (isWhite(pixels[x])) {
                     binaryArray[y][x] = 1;
                 } else {
                     binaryArray[y][x] = 0; 
@@ -78,6 +77,46 @@ public class DistanceImageBinarizer implements ImageBinarizer {
         return binaryArray;
     }
 
+    /**
+     * Converts the given BufferedImage into a bit-packed BinaryMask using color distance and a threshold.
+     * A pixel's bit is set (white) if its Euclidean distance to the target color is less than the threshold.
+     *
+     * @param image the input RGB BufferedImage
+     * @return a BinaryMask where set bits represent white and clear bits represent black
+     */
+    @Override
+    public BinaryMask toBinaryMask(BufferedImage image) {
+        if(image == null){
+            throw new IllegalArgumentException("Image cant be null");
+        }
+        int width = image.getWidth();
+        int height = image.getHeight();
+        BinaryMask mask = new BinaryMask(width, height);
+        int[] pixels = new int[width];
+
+        for (int y = 0; y < height; y++) {
+            PixelRows.read(image, 0, y, width, pixels);
+            for (int x = 0; x < width; x++) {
+                if (isWhite(pixels[x])) {
+                    mask.set(x, y);
+                }
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Decides whether a single pixel is white in the binary image, that is whether its
+     * color distance to the target color is less than the threshold.
+     *
+     * @param pixelColor the pixel's color as a 24-bit hex RGB integer (0xRRGGBB)
+     * @return true if the pixel is white (1), false if it is black (0)
+     */
+    public boolean isWhite(int pixelColor) {
+        //measure color difference, using the finder's fast path if it has one
+        return distanceFinder.withinThreshold(pixelColor, targetColor, threshold);
+    }
+
     /**
      * Converts a binary 2D array into a BufferedImage.
      * Each value should be 0 (black) or 1 (white).
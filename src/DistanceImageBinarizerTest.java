@@ -3,6 +3,7 @@ import static org.junit.jupiter.api.Assertions.*;
 
 import java.awt.Color;
 import java.awt.image.BufferedImage;
+import java.util.Random;
 
 /**
  * Tests for DistanceImageBinarizer using a Fake implementation for ColorDistanceFinder 
@@ -105,6 +106,17 @@ public class DistanceImageBinarizerTest {
         binarizer.toBinaryArray(input); 
     }
     
+    /** A finder without a fast path falls back to comparing distance() against the threshold. */
+    @Test
+    void testToBinaryArray_DefaultThresholdCheckAtBoundary() {
+        // Fake returns exactly the threshold, which is not less than it
+        ColorDistanceFinder cdf = new FakeColorDistanceFinder(THRESHOLD);
+        DistanceImageBinarizer binarizer = new DistanceImageBinarizer(cdf, REF_COLOR, THRESHOLD);
+
+        BufferedImage input = createTestImage(ARGB_RED_OPAQUE, ARGB_BLUE_TRANSPARENT);
+        assertArrayEquals(new int[]{0, 0}, binarizer.toBinaryArray(input)[0]);
+    }
+
     /** Test for Null input. */
     @Test
     void testToBinaryArray_NullImage() {
@@ -115,6 +127,22 @@ public class DistanceImageBinarizerTest {
                      "Should throw IllegalArgumentException for a null image.");
     }
 
+    /** The packed mask should hold the same pixels as the binary array. */
+    @Test
+    void testToBinaryMask_MatchesBinaryArray() {
+        DistanceImageBinarizer binarizer = new DistanceImageBinarizer(new EuclideanColorDistance(), 0x808080, 120);
+        BufferedImage input = new BufferedImage(70, 3, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(4);
+        for (int y = 0; y < 3; y++) {
+            for (int x = 0; x < 70; x++) {
+                input.setRGB(x, y, random.nextInt());
+            }
+        }
+
+        assertEquals(BinaryMask.fromArray(binarizer.toBinaryArray(input)), binarizer.toBinaryMask(input));
+        assertThrows(IllegalArgumentException.class, () -> binarizer.toBinaryMask(null));
+    }
+
     // =========================================================
     // 2. Tests for toBufferedImage(int[][] image)
     // =========================================================
@@ -160,4 +188,41 @@ public class DistanceImageBinarizerTest {
         assertThrows(IllegalArgumentException.class, () -> binarizer.toBufferedImage(new int[5][0]),
                      "Should throw IllegalArgumentException for a zero-width array.");
     }
+
+    // =========================================================
+    // 3. Tests for toBinaryImage(int[][] image)
+    // =========================================================
+
+    /** The 1-bit image has the same pixels as the TYPE_INT_RGB one, across byte boundaries. */
+    @Test
+    void testToBinaryImage_MatchesBufferedImage() {
+        DistanceImageBinarizer binarizer = new DistanceImageBinarizer(new FakeColorDistanceFinder(0.0), REF_COLOR, THRESHOLD);
+        Random random = new Random(16);
+        for (int width : new int[] {1, 7, 8, 9, 17, 64}) {
+            int[][] binaryArray = new int[3][width];
+            for (int[] row : binaryArray) {
+                for (int x = 0; x < width; x++) {
+                    row[x] = random.nextInt(2);
+                }
+            }
+
+            BufferedImage packed = binarizer.toBinaryImage(binaryArray);
+            BufferedImage rgb = binarizer.toBufferedImage(binaryArray);
+            assertEquals(BufferedImage.TYPE_BYTE_BINARY, packed.getType());
+            for (int y = 0; y < 3; y++) {
+                for (int x = 0; x < width; x++) {
+                    assertEquals(rgb.getRGB(x, y), packed.getRGB(x, y), "Pixel (" + x + ", " + y + ")");
+                }
+            }
+        }
+    }
+
+    /** Null, empty and ragged arrays are rejected. */
+    @Test
+    void testToBinaryImage_InvalidArrays() {
+        DistanceImageBinarizer binarizer = new DistanceImageBinarizer(new FakeColorDistanceFinder(0.0), REF_COLOR, THRESHOLD);
+        assertThrows(IllegalArgumentException.class, () -> binarizer.toBinaryImage(null));
+        assertThrows(IllegalArgumentException.class, () -> binarizer.toBinaryImage(new int[0][0]));
+        assertThrows(IllegalArgumentException.class, () -> binarizer.toBinaryImage(new int[][] {{1, 0}, {1}}));
+    }
 }
\ No newline at end of file
@@ -37,4 +37,30 @@ public class EuclideanColorDistance implements ColorDistanceFinder {
 
         return distance;
     }
+
+    /**
+     * Returns whether the Euclidean distance between two hex RGB colors is less than the threshold.
+     *
+     * For a threshold above 0, sqrt(d) < threshold exactly when d < threshold^2, and the squared
+     * distance d is a whole number, so the check is done with integer subtractions and
+     * multiplications only. A threshold of 0 or less can never be beaten since distances are
+     * never negative.
+     *
+     * @param colorA the first color as a 24-bit hex RGB integer
+     * @param colorB the second color as a 24-bit hex RGB integer
+     * @param threshold the distance the colors must be closer than
+     * @return the same result as distance(colorA, colorB) < threshold
+     */
+    @Override
+    public boolean withinThreshold(int colorA, int colorB, int threshold) {
+        if (threshold <= 0) {
+            return false;
+        }
+
+        int dr = ((colorA >> 16) & 0xFF) - ((colorB >> 16) & 0xFF);
+        int dg = ((colorA >> 8) & 0xFF) - ((colorB >> 8) & 0xFF);
+        int db = (colorA & 0xFF) - (colorB & 0xFF);
+
+        return dr * dr + dg * dg + db * db < (long) threshold * threshold;
+    }
 }
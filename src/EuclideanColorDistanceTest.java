@@ -94,6 +94,37 @@ class EuclideanColorDistanceTest {
         assertEquals(distAB, distBA, 0.0001, "Distance should be symmetric");
     }
 
+    @Test
+    void testWithinThresholdAtExactDistance() {
+        // (3, 4, 0) apart is a distance of exactly 5
+        int colorA = 0x102030;
+        int colorB = 0x132430;
+        assertFalse(distanceFinder.withinThreshold(colorA, colorB, 5), "Equal to the threshold is not within it");
+        assertTrue(distanceFinder.withinThreshold(colorA, colorB, 6));
+        assertFalse(distanceFinder.withinThreshold(colorA, colorA, 0), "Nothing is closer than 0");
+        assertFalse(distanceFinder.withinThreshold(colorA, colorA, -3), "Nothing is closer than a negative threshold");
+        assertTrue(distanceFinder.withinThreshold(0x000000, 0xFFFFFF, Integer.MAX_VALUE));
+    }
+
+    @Test
+    void testWithinThresholdMatchesDistanceForEveryChannelDifference() {
+        // Every possible (dr, dg, db), checked at the thresholds on either side of its distance
+        for (int dr = 0; dr < 256; dr++) {
+            for (int dg = 0; dg < 256; dg++) {
+                for (int db = 0; db < 256; db++) {
+                    int color = (dr << 16) | (dg << 8) | db;
+                    double distance = distanceFinder.distance(color, 0x000000);
+                    int below = (int) distance;
+                    for (int threshold = below; threshold <= below + 1; threshold++) {
+                        if (distanceFinder.withinThreshold(color, 0x000000, threshold) != (distance < threshold)) {
+                            fail("Mismatch for color " + Integer.toHexString(color) + " and threshold " + threshold);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
     @Test
     void testRangeBoundaries() {
         // Valid range 0x000000 - 0xFFFFFF
@@ -0,0 +1,114 @@
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Finds the image files that make up a sequence of video frames, in frame order.
+ *
+ * A sequence is given either as a directory, in which case every image file in it is a frame,
+ * or as a numbered file pattern such as "frames/frame_%04d.png", in which case the frames are
+ * the files the pattern names for 0, 1, 2, ... (or 1, 2, 3, ... if there is no frame 0) up to
+ * the first number with no file.
+ *
+ * Directory entries are put in natural order, so "frame2.png" comes before "frame10.png".
+ */
+public final class FrameSequence {
+    private static final List<String> IMAGE_EXTENSIONS = List.of(".png", ".jpg", ".jpeg", ".bmp", ".gif");
+
+    private FrameSequence() {
+    }
+
+    /**
+     * Lists the frames of a sequence in order.
+     *
+     * @param input a directory of frames or a numbered file pattern containing a %d conversion
+     * @return the frame files in order
+     * @throws IllegalArgumentException if the input names no frames
+     */
+    public static List<File> resolve(String input) {
+        if (input == null) {
+            throw new IllegalArgumentException("Input cannot be null");
+        }
+        List<File> frames = input.contains("%") ? fromPattern(input) : listImages(new File(input));
+        if (frames.isEmpty()) {
+            throw new IllegalArgumentException("No frames found for " + input);
+        }
+        return frames;
+    }
+
+    private static List<File> fromPattern(String pattern) {
+        List<File> frames = new ArrayList<>();
+        int number = new File(String.format(pattern, 0)).isFile() ? 0 : 1;
+        File frame = new File(String.format(pattern, number));
+        while (frame.isFile()) {
+            frames.add(frame);
+            number++;
+            frame = new File(String.format(pattern, number));
+        }
+        return frames;
+    }
+
+    /**
+     * Lists the image files in a directory in natural order.
+     *
+     * @throws IllegalArgumentException if directory is not a directory
+     */
+    static List<File> listImages(File directory) {
+        File[] files = directory.listFiles(file -> file.isFile() && isImage(file.getName()));
+        if (files == null) {
+            throw new IllegalArgumentException("Not a directory: " + directory);
+        }
+        Arrays.sort(files, (a, b) -> compareNatural(a.getName(), b.getName()));
+        return Arrays.asList(files);
+    }
+
+    static boolean isImage(String name) {
+        String lower = name.toLowerCase(Locale.ROOT);
+        for (String extension : IMAGE_EXTENSIONS) {
+            if (lower.endsWith(extension)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Compares two names, treating runs of digits as numbers so that "frame2" sorts before "frame10".
+     */
+    static int compareNatural(String a, String b) {
+        int i = 0;
+        int j = 0;
+        while (i < a.length() && j < b.length()) {
+            char ca = a.charAt(i);
+            char cb = b.charAt(j);
+            if (Character.isDigit(ca) && Character.isDigit(cb)) {
+                int endA = i;
+                while (endA < a.length() && Character.isDigit(a.charAt(endA))) endA++;
+                int endB = j;
+                while (endB < b.length() && Character.isDigit(b.charAt(endB))) endB++;
+
+                // Compare the numbers without leading zeros: a longer number is larger
+                String numberA = a.substring(i, endA).replaceFirst("^0+(?=.)", "");
+                String numberB = b.substring(j, endB).replaceFirst("^0+(?=.)", "");
+                int comp = numberA.length() != numberB.length()
+                        ? Integer.compare(numberA.length(), numberB.length())
+                        : numberA.compareTo(numberB);
+                if (comp != 0) {
+                    return comp;
+                }
+                i = endA;
+                j = endB;
+            } else {
+                if (ca != cb) {
+                    return Character.compare(ca, cb);
+                }
+                i++;
+                j++;
+            }
+        }
+        int comp = Integer.compare(a.length() - i, b.length() - j);
+        return comp != 0 ? comp : a.compareTo(b);
+    }
+}
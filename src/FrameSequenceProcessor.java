@@ -0,0 +1,230 @@
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.PrintWriter;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.imageio.ImageIO;
+
+/**
+ * Finds the connected groups in every frame of an image sequence and writes them all to one CSV.
+ *
+ * The frames go through a three-stage pipeline: one thread decodes frames with ImageIO, a second
+ * thread binarizes and labels them with the ImageGroupFinder, and the calling thread writes the
+ * rows. The stages are joined by small bounded queues, so decoding the next frame overlaps with
+ * labeling the current one and writing the previous one, while at most a few decoded frames are
+ * ever held in memory. The same ImageGroupFinder is used for every frame.
+ *
+ * Each group becomes one row in the format "frame,size,x,y", where frame is the frame's position
+ * in the sequence starting from 0. Rows are written in frame order, and within a frame in the
+ * group finder's descending order. A frame that cannot be decoded is reported and skipped.
+ *
+ * With a GroupTracker, the groups of each frame are matched to the groups of the frames before it
+ * and each row becomes "frame,id,size,x,y", where id stays the same for the same object.
+ *
+ * Decoding and writing each frame are reported to an optional PipelineListener and emitted as
+ * Java Flight Recorder events; give the ImageGroupFinder the same listener to cover the other stages.
+ */
+public class FrameSequenceProcessor {
+    /** How many frames may wait between two stages by default. */
+    public static final int DEFAULT_QUEUE_CAPACITY = 4;
+
+    private final ImageGroupFinder groupFinder;
+    private final GroupQuery query;
+    private final int queueCapacity;
+    private final PipelineListener listener;
+    private final GroupTracker tracker;
+
+    /**
+     * Constructs a FrameSequenceProcessor that keeps every group of every frame.
+     *
+     * @param groupFinder the group finder to run on each frame
+     */
+    public FrameSequenceProcessor(ImageGroupFinder groupFinder) {
+        this(groupFinder, GroupQuery.ALL, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Constructs a FrameSequenceProcessor.
+     *
+     * @param groupFinder the group finder to run on each frame
+     * @param query which groups of each frame to keep
+     * @param queueCapacity how many frames may wait between two stages
+     */
+    public FrameSequenceProcessor(ImageGroupFinder groupFinder, GroupQuery query, int queueCapacity) {
+        this(groupFinder, query, queueCapacity, null);
+    }
+
+    /**
+     * Constructs a FrameSequenceProcessor that reports decoding and writing each frame to a listener.
+     *
+     * @param groupFinder the group finder to run on each frame
+     * @param query which groups of each frame to keep
+     * @param queueCapacity how many frames may wait between two stages
+     * @param listener the listener to report to, or null for none
+     */
+    public FrameSequenceProcessor(ImageGroupFinder groupFinder, GroupQuery query, int queueCapacity,
+            PipelineListener listener) {
+        this(groupFinder, query, queueCapacity, listener, null);
+    }
+
+    /**
+     * Constructs a FrameSequenceProcessor that gives the groups track IDs.
+     *
+     * @param groupFinder the group finder to run on each frame
+     * @param query which groups of each frame to keep
+     * @param queueCapacity how many frames may wait between two stages
+     * @param listener the listener to report to, or null for none
+     * @param tracker the tracker to match groups between frames, or null to write groups without IDs
+     */
+    public FrameSequenceProcessor(ImageGroupFinder groupFinder, GroupQuery query, int queueCapacity,
+            PipelineListener listener, GroupTracker tracker) {
+        if (groupFinder == null || query == null) {
+            throw new IllegalArgumentException("Group finder and query cannot be null");
+        }
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("Queue capacity must be at least 1");
+        }
+        this.groupFinder = groupFinder;
+        this.query = query;
+        this.queueCapacity = queueCapacity;
+        this.listener = listener;
+        this.tracker = tracker;
+    }
+
+    /**
+     * Processes every frame and writes one row per group to out.
+     *
+     * @param frames the frame image files, in order
+     * @param out where to write the CSV rows
+     * @return the number of frames that were decoded and processed
+     * @throws IllegalStateException if a stage failed or writing to out failed
+     */
+    public int process(List<File> frames, PrintWriter out) {
+        BlockingQueue<Frame> decoded = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<FrameGroups> labeled = new ArrayBlockingQueue<>(queueCapacity);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        ExecutorService stages = Executors.newFixedThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "frame-pipeline");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            stages.execute(() -> decodeFrames(frames, decoded, failure));
+            stages.execute(() -> labelFrames(decoded, labeled, failure));
+
+            int processed = 0;
+            FrameGroups result = labeled.take();
+            while (result != FrameGroups.END) {
+                StageTimer write = StageTimer.start(listener, PipelineStage.WRITE_GROUPS);
+                if (tracker == null) {
+                    for (Group group : result.groups()) {
+                        out.println(result.index() + "," + group.toCsvRow());
+                    }
+                } else {
+                    // Tracked here, on the writing thread, so frames reach the tracker in order
+                    for (TrackedGroup group : tracker.update(result.groups())) {
+                        out.println(result.index() + "," + group.toCsvRow());
+                    }
+                }
+                write.finish(0, result.groups().size());
+                processed++;
+                result = labeled.take();
+            }
+
+            Throwable error = failure.get();
+            if (error instanceof RuntimeException e) {
+                throw e;
+            }
+            if (error instanceof Error e) {
+                throw e;
+            }
+            if (error != null) {
+                throw new IllegalStateException("Frame pipeline failed", error);
+            }
+            // PrintWriter keeps write errors to itself until asked
+            if (out.checkError()) {
+                throw new IllegalStateException("Could not write the group rows");
+            }
+            return processed;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while processing frames", e);
+        } finally {
+            // Wakes up a decoder still waiting on a full queue if labeling stopped early
+            stages.shutdownNow();
+        }
+    }
+
+    // First stage: decode each frame and hand it to the labeling stage
+    private void decodeFrames(List<File> frames, BlockingQueue<Frame> decoded, AtomicReference<Throwable> failure) {
+        try {
+            for (int index = 0; index < frames.size(); index++) {
+                File file = frames.get(index);
+                BufferedImage image;
+                StageTimer decode = StageTimer.start(listener, PipelineStage.DECODE);
+                try {
+                    image = ImageIO.read(file);
+                } catch (Exception e) {
+                    image = null;
+                }
+                if (image == null) {
+                    decode.finish(0, 0);
+                    System.err.println("Error loading frame: " + file);
+                    continue;
+                }
+                decode.finish((long) image.getWidth() * image.getHeight(), 0);
+                decoded.put(new Frame(index, image));
+            }
+        } catch (InterruptedException e) {
+            // Keeps the interrupt so ending the queue gives up at once while shutting down
+            Thread.currentThread().interrupt();
+        } catch (Throwable e) {
+            failure.compareAndSet(null, e);
+        } finally {
+            end(decoded, Frame.END);
+        }
+    }
+
+    // Second stage: find the groups of each decoded frame and hand them to the writer
+    private void labelFrames(BlockingQueue<Frame> decoded, BlockingQueue<FrameGroups> labeled,
+            AtomicReference<Throwable> failure) {
+        try {
+            Frame frame = decoded.take();
+            while (frame != Frame.END) {
+                List<Group> groups = groupFinder.findConnectedGroups(frame.image(), query);
+                labeled.put(new FrameGroups(frame.index(), groups));
+                frame = decoded.take();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Throwable e) {
+            failure.compareAndSet(null, e);
+        } finally {
+            end(labeled, FrameGroups.END);
+        }
+    }
+
+    // Tells the next stage there is nothing more, however this stage stopped, so it never waits forever
+    private static <T> void end(BlockingQueue<T> queue, T end) {
+        try {
+            queue.put(end);
+        } catch (InterruptedException e) {
+            // The pipeline is already shutting down
+        }
+    }
+
+    // A decoded frame waiting to be labeled
+    private record Frame(int index, BufferedImage image) {
+        static final Frame END = new Frame(-1, null);
+    }
+
+    // A labeled frame waiting to be written
+    private record FrameGroups(int index, List<Group> groups) {
+        static final FrameGroups END = new FrameGroups(-1, List.of());
+    }
+}
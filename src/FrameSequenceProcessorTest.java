@@ -0,0 +1,254 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for FrameSequence and FrameSequenceProcessor.
+ */
+public class FrameSequenceProcessorTest {
+
+    private static final DistanceImageBinarizer BINARIZER =
+            new DistanceImageBinarizer(new EuclideanColorDistance(), 0xFFFFFF, 10);
+
+    /** Builds a random black and white frame. */
+    private static BufferedImage randomFrame(Random random, int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, random.nextDouble() < 0.4 ? 0xFFFFFF : 0x000000);
+            }
+        }
+        return image;
+    }
+
+    /** Writes count random frames named frame_0.png, frame_1.png, ... and returns them in order. */
+    private static List<BufferedImage> writeFrames(Path dir, int count) throws IOException {
+        Random random = new Random(13);
+        List<BufferedImage> frames = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            BufferedImage frame = randomFrame(random, 30 + i, 20);
+            ImageIO.write(frame, "png", dir.resolve("frame_" + i + ".png").toFile());
+            frames.add(frame);
+        }
+        return frames;
+    }
+
+    private static List<String> run(FrameSequenceProcessor processor, List<File> files) {
+        StringWriter text = new StringWriter();
+        try (PrintWriter out = new PrintWriter(text)) {
+            processor.process(files, out);
+        }
+        return text.toString().lines().toList();
+    }
+
+    /** Directory entries come back in natural order. */
+    @Test
+    void testResolveDirectory(@TempDir Path dir) throws IOException {
+        writeFrames(dir, 12);
+        Files.writeString(dir.resolve("notes.txt"), "not a frame");
+
+        List<File> frames = FrameSequence.resolve(dir.toString());
+        assertEquals(12, frames.size());
+        for (int i = 0; i < 12; i++) {
+            assertEquals("frame_" + i + ".png", frames.get(i).getName());
+        }
+    }
+
+    /** A numbered pattern stops at the first missing frame and may start at 1. */
+    @Test
+    void testResolvePattern(@TempDir Path dir) throws IOException {
+        writeFrames(dir, 5);
+        assertEquals(5, FrameSequence.resolve(dir.resolve("frame_%d.png").toString()).size());
+
+        Files.delete(dir.resolve("frame_0.png"));
+        Files.delete(dir.resolve("frame_3.png"));
+        List<File> frames = FrameSequence.resolve(dir.resolve("frame_%d.png").toString());
+        assertEquals(List.of("frame_1.png", "frame_2.png"), frames.stream().map(File::getName).toList());
+    }
+
+    /** Inputs with no frames are rejected. */
+    @Test
+    void testResolveNothing(@TempDir Path dir) {
+        assertThrows(IllegalArgumentException.class, () -> FrameSequence.resolve(dir.toString()));
+        assertThrows(IllegalArgumentException.class, () -> FrameSequence.resolve(dir.resolve("f%d.png").toString()));
+        assertThrows(IllegalArgumentException.class, () -> FrameSequence.resolve(dir.resolve("missing").toString()));
+    }
+
+    /** Natural order compares digit runs as numbers. */
+    @Test
+    void testCompareNatural() {
+        assertTrue(FrameSequence.compareNatural("frame2.png", "frame10.png") < 0);
+        assertTrue(FrameSequence.compareNatural("frame010.png", "frame9.png") > 0);
+        assertTrue(FrameSequence.compareNatural("a1b2", "a1b3") < 0);
+        assertTrue(FrameSequence.compareNatural("frame01.png", "frame1.png") != 0);
+        assertEquals(0, FrameSequence.compareNatural("x7.png", "x7.png"));
+    }
+
+    /** Every frame's rows match running the group finder on that frame alone, in frame order. */
+    @Test
+    void testMatchesPerFrame(@TempDir Path dir) throws IOException {
+        List<BufferedImage> images = writeFrames(dir, 9);
+        ImageGroupFinder finder = new BinarizingImageGroupFinder(BINARIZER, new ScanlineBinaryGroupFinder());
+
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < images.size(); i++) {
+            for (Group group : finder.findConnectedGroups(images.get(i))) {
+                expected.add(i + "," + group.toCsvRow());
+            }
+        }
+
+        // A queue of one forces the stages to wait on each other
+        List<File> files = FrameSequence.resolve(dir.toString());
+        assertEquals(expected, run(new FrameSequenceProcessor(finder, GroupQuery.ALL, 1), files));
+        assertEquals(expected, run(new FrameSequenceProcessor(finder), files));
+    }
+
+    /** The query is applied to each frame separately. */
+    @Test
+    void testQueryPerFrame(@TempDir Path dir) throws IOException {
+        writeFrames(dir, 4);
+        ImageGroupFinder finder = new FusedImageGroupFinder(BINARIZER);
+        List<String> rows = run(new FrameSequenceProcessor(finder, new GroupQuery(0, 2), 2),
+                FrameSequence.resolve(dir.toString()));
+
+        assertEquals(8, rows.size());
+        for (int i = 0; i < 4; i++) {
+            assertTrue(rows.get(2 * i).startsWith(i + ","));
+            assertTrue(rows.get(2 * i + 1).startsWith(i + ","));
+        }
+    }
+
+    /** With a tracker, rows carry the IDs a tracker fed the same frames in order gives. */
+    @Test
+    void testTrackedRows(@TempDir Path dir) throws IOException {
+        List<BufferedImage> images = writeFrames(dir, 6);
+        ImageGroupFinder finder = new FusedImageGroupFinder(BINARIZER);
+        GroupQuery query = new GroupQuery(3, Integer.MAX_VALUE);
+
+        GroupTracker expectedTracker = new GroupTracker(3);
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < images.size(); i++) {
+            for (TrackedGroup group : expectedTracker.update(finder.findConnectedGroups(images.get(i), query))) {
+                expected.add(i + "," + group.toCsvRow());
+            }
+        }
+
+        FrameSequenceProcessor processor = new FrameSequenceProcessor(finder, query, 1, null, new GroupTracker(3));
+        List<String> rows = run(processor, FrameSequence.resolve(dir.toString()));
+        assertEquals(expected, rows);
+        assertEquals(5, rows.get(0).split(",").length);
+    }
+
+    /** Frames that cannot be decoded are skipped but keep their place in the numbering. */
+    @Test
+    void testSkipsUnreadableFrames(@TempDir Path dir) throws IOException {
+        writeFrames(dir, 3);
+        Files.writeString(dir.resolve("frame_1.png"), "not an image");
+        FrameSequenceProcessor processor = new FrameSequenceProcessor(new FusedImageGroupFinder(BINARIZER));
+
+        StringWriter text = new StringWriter();
+        int processed;
+        try (PrintWriter out = new PrintWriter(text)) {
+            processed = processor.process(FrameSequence.resolve(dir.toString()), out);
+        }
+        assertEquals(2, processed);
+        assertTrue(text.toString().lines().noneMatch(row -> row.startsWith("1,")));
+        assertTrue(text.toString().lines().anyMatch(row -> row.startsWith("2,")));
+    }
+
+    /** A failing group finder stops the pipeline and its exception reaches the caller. */
+    @Test
+    void testFinderFailure(@TempDir Path dir) throws IOException {
+        writeFrames(dir, 20);
+        ImageGroupFinder failing = image -> {
+            throw new IllegalStateException("boom");
+        };
+        FrameSequenceProcessor processor = new FrameSequenceProcessor(failing, GroupQuery.ALL, 1);
+        List<File> files = FrameSequence.resolve(dir.toString());
+
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> processor.process(files, new PrintWriter(new StringWriter())));
+        assertEquals("boom", e.getMessage());
+    }
+
+    /** An Error in the labeling stage also stops the pipeline and reaches the caller instead of hanging it. */
+    @Test
+    void testFinderError(@TempDir Path dir) throws IOException {
+        writeFrames(dir, 20);
+        ImageGroupFinder failing = image -> {
+            throw new OutOfMemoryError("frame too large");
+        };
+        FrameSequenceProcessor processor = new FrameSequenceProcessor(failing, GroupQuery.ALL, 1);
+        List<File> files = FrameSequence.resolve(dir.toString());
+
+        OutOfMemoryError e = assertTimeoutPreemptively(Duration.ofSeconds(10), () -> assertThrows(
+                OutOfMemoryError.class, () -> processor.process(files, new PrintWriter(new StringWriter()))));
+        assertEquals("frame too large", e.getMessage());
+    }
+
+    /** An Error in the decoding stage reaches the caller instead of hanging the pipeline. */
+    @Test
+    void testDecodeError(@TempDir Path dir) throws IOException {
+        writeFrames(dir, 3);
+        List<File> files = new ArrayList<>(FrameSequence.resolve(dir.toString()));
+        files.set(1, new File(files.get(1).getPath()) {
+            @Override
+            public boolean canRead() {
+                throw new OutOfMemoryError("decoding");
+            }
+        });
+        FrameSequenceProcessor processor = new FrameSequenceProcessor(new FusedImageGroupFinder(BINARIZER));
+
+        OutOfMemoryError e = assertTimeoutPreemptively(Duration.ofSeconds(10), () -> assertThrows(
+                OutOfMemoryError.class, () -> processor.process(files, new PrintWriter(new StringWriter()))));
+        assertEquals("decoding", e.getMessage());
+    }
+
+    /** A writer that fails is reported instead of the rows silently going missing. */
+    @Test
+    void testWriteError(@TempDir Path dir) throws IOException {
+        writeFrames(dir, 2);
+        Writer failing = new Writer() {
+            @Override
+            public void write(char[] buffer, int offset, int length) throws IOException {
+                throw new IOException("disk full");
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        FrameSequenceProcessor processor = new FrameSequenceProcessor(new FusedImageGroupFinder(BINARIZER));
+
+        assertThrows(IllegalStateException.class,
+                () -> processor.process(FrameSequence.resolve(dir.toString()), new PrintWriter(failing)));
+    }
+
+    /** Bad constructor arguments are rejected. */
+    @Test
+    void testInvalidArguments() {
+        ImageGroupFinder finder = new FusedImageGroupFinder(BINARIZER);
+        assertThrows(IllegalArgumentException.class, () -> new FrameSequenceProcessor(null));
+        assertThrows(IllegalArgumentException.class, () -> new FrameSequenceProcessor(finder, null, 1));
+        assertThrows(IllegalArgumentException.class, () -> new FrameSequenceProcessor(finder, GroupQuery.ALL, 0));
+    }
+}
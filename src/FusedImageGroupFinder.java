@@ -0,0 +1,132 @@
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.List;
+
+/**
+ * An implementation of the ImageGroupFinder interface that binarizes and labels the image in a
+ * single pass, without ever building the full binary array.
+ *
+ * The image is read one row at a time. Each pixel is classified with the DistanceImageBinarizer's
+ * color test as soon as it is read and handed straight to a RowLabeler, which keeps only the
+ * labels of the previous row plus the running size and coordinate sums of the groups that touch
+ * it. A group is handed to the collector as soon as a row no longer touches it, and its labels
+ * are reused. Instead of an int[][] mask and a boolean[][] visited grid for the whole image,
+ * memory grows with the image width alone.
+ *
+ * The groups found are exactly the same as the ones found by a BinarizingImageGroupFinder with the
+ * same binarizer and a DfsBinaryGroupFinder with the same connectivity.
+ */
+public class FusedImageGroupFinder implements ImageGroupFinder {
+    private final DistanceImageBinarizer binarizer;
+    private final Connectivity connectivity;
+
+    /**
+     * Constructs a FusedImageGroupFinder that decides which pixels are white using the given binarizer.
+     *
+     * @param binarizer the binarizer whose target color and threshold decide which pixels are white
+     */
+    public FusedImageGroupFinder(DistanceImageBinarizer binarizer) {
+        this(binarizer, Connectivity.FOUR);
+    }
+
+    /**
+     * Constructs a FusedImageGroupFinder with the given connectivity.
+     *
+     * @param binarizer the binarizer whose target color and threshold decide which pixels are white
+     * @param connectivity which neighboring pixels are connected
+     */
+    public FusedImageGroupFinder(DistanceImageBinarizer binarizer, Connectivity connectivity) {
+        if (binarizer == null) {
+            throw new IllegalArgumentException("Binarizer cannot be null");
+        }
+        if (connectivity == null) {
+            throw new IllegalArgumentException("Connectivity cannot be null");
+        }
+        this.binarizer = binarizer;
+        this.connectivity = connectivity;
+    }
+
+    /**
+     * Finds connected groups of white pixels in the given image, connected vertically and horizontally,
+     * and diagonally too with eight-connectivity.
+     * The groups are returned in descending order, according to the sorting defined in the Group record.
+     *
+     * @param image the input BufferedImage to process
+     * @return a list of groups representing connected white pixels in the image
+     */
+    @Override
+    public List<Group> findConnectedGroups(BufferedImage image) {
+        return findConnectedGroups(image, GroupQuery.ALL);
+    }
+
+    /**
+     * Finds the connected groups of white pixels the query asks for.
+     *
+     * @param image the input BufferedImage to process
+     * @param query which groups to keep
+     * @return the kept groups in descending order
+     */
+    @Override
+    public List<Group> findConnectedGroups(BufferedImage image, GroupQuery query) {
+        if (image == null) {
+            throw new IllegalArgumentException("Image cannot be null");
+        }
+        return label(image, new Rectangle(0, 0, image.getWidth(), image.getHeight()), null, query);
+    }
+
+    /**
+     * Finds the connected groups the query asks for among the pixels inside a region of interest,
+     * rectangular or polygonal. Only the rows and columns of the region's bounds are read, and the
+     * centroids are reported in full-image coordinates.
+     *
+     * @param image the input BufferedImage to process
+     * @param region the part of the image to search
+     * @param query which groups to keep
+     * @return the kept groups in descending order
+     */
+    @Override
+    public List<Group> findConnectedGroups(BufferedImage image, RegionOfInterest region, GroupQuery query) {
+        if (image == null) {
+            throw new IllegalArgumentException("Image cannot be null");
+        }
+        if (region == null || query == null) {
+            throw new IllegalArgumentException("Region and query cannot be null");
+        }
+        Rectangle clip = region.clip(image);
+        if (clip.isEmpty()) {
+            return List.of();
+        }
+        List<Group> groups = label(image, clip, region.isRectangle() ? null : region, query);
+        return GroupFinderSupport.translate(groups, clip.x, clip.y);
+    }
+
+    // Labels the pixels of area, leaving out those outside polygon if there is one, with
+    // centroids relative to the top-left of area
+    private List<Group> label(BufferedImage image, Rectangle area, RegionOfInterest polygon, GroupQuery query) {
+        GroupCollector groups = new GroupCollector(query);
+
+        int width = area.width;
+        int[] pixels = new int[width];
+        int[] binaryRow = new int[width];
+        RowLabeler labeler = new RowLabeler(width, 0, connectivity, groups);
+
+        for (int y = 0; y < area.height; y++) {
+            PixelRows.read(image, area.x, area.y + y, width, pixels);
+            for (int x = 0; x < width; x++) {
+                binaryRow[x] = binarizer.isWhite(pixels[x]) ? 1 : 0;
+            }
+            if (polygon != null) {
+                for (int x = 0; x < width; x++) {
+                    if (!polygon.contains(area.x + x, area.y + y)) {
+                        binaryRow[x] = 0;
+                    }
+                }
+            }
+            labeler.addRow(binaryRow);
+        }
+        labeler.finish();
+
+        labeler.addGroupsTo(groups);
+        return groups.result();
+    }
+}
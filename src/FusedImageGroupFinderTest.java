@@ -0,0 +1,128 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for FusedImageGroupFinder, checked against BinarizingImageGroupFinder with the same binarizer.
+ */
+public class FusedImageGroupFinderTest {
+
+    /** Runs both finders with the same settings and checks they agree. */
+    private static void assertMatchesBinarizingFinder(BufferedImage image, int targetColor, int threshold) {
+        DistanceImageBinarizer binarizer =
+                new DistanceImageBinarizer(new EuclideanColorDistance(), targetColor, threshold);
+        List<Group> expected =
+                new BinarizingImageGroupFinder(binarizer, new ReferenceBinaryGroupFinder()).findConnectedGroups(image);
+
+        assertEquals(expected, new FusedImageGroupFinder(binarizer).findConnectedGroups(image),
+                "Mismatch for target " + Integer.toHexString(targetColor) + " and threshold " + threshold);
+    }
+
+    /** The sample image should give the same groups as binarizing first. */
+    @Test
+    void testMatchesBinarizingFinderOnSampleImage() throws IOException {
+        BufferedImage input = ImageIO.read(new File("sampleInput/squares.jpg"));
+        assertMatchesBinarizingFinder(input, 0xFFA200, 164);
+        assertMatchesBinarizingFinder(input, 0x000000, 100);
+    }
+
+    /** Random images, including semi-transparent pixels, at several thresholds. */
+    @Test
+    void testMatchesBinarizingFinderOnRandomImages() {
+        Random random = new Random(5);
+        for (int trial = 0; trial < 20; trial++) {
+            int width = 1 + random.nextInt(60);
+            int height = 1 + random.nextInt(60);
+            BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    image.setRGB(x, y, random.nextInt());
+                }
+            }
+            assertMatchesBinarizingFinder(image, 0x808080, 50 + trial * 10);
+        }
+    }
+
+    /** With eight-connectivity, random images match binarizing first and labeling with the eight-connected DFS. */
+    @Test
+    void testEightConnectedMatchesBinarizingFinder() {
+        DistanceImageBinarizer binarizer = new DistanceImageBinarizer(new EuclideanColorDistance(), 0xFFFFFF, 10);
+        ImageGroupFinder expected = new BinarizingImageGroupFinder(binarizer, new ReferenceBinaryGroupFinder(Connectivity.EIGHT));
+        ImageGroupFinder fused = new FusedImageGroupFinder(binarizer, Connectivity.EIGHT);
+
+        Random random = new Random(27);
+        for (int trial = 0; trial < 20; trial++) {
+            int width = 1 + random.nextInt(60);
+            int height = 1 + random.nextInt(60);
+            BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    image.setRGB(x, y, random.nextDouble() < 0.35 ? 0xFFFFFF : 0x000000);
+                }
+            }
+            assertEquals(expected.findConnectedGroups(image), fused.findConnectedGroups(image));
+        }
+    }
+
+    /** Teeth that only join at the bottom row, and U shapes nested inside each other, stay one group each. */
+    @Test
+    void testGroupsJoinedOnLastRow() {
+        BufferedImage image = new BufferedImage(41, 30, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < 30; y++) {
+            for (int x = 0; x < 21; x += 2) {
+                image.setRGB(x, y, 0xFFFFFF);
+            }
+        }
+        for (int x = 0; x < 21; x++) {
+            image.setRGB(x, 29, 0xFFFFFF);
+        }
+        for (int inset = 0; inset < 8; inset += 2) {
+            for (int y = inset; y < 30 - inset; y++) {
+                image.setRGB(24 + inset, y, 0xFFFFFF);
+                image.setRGB(40 - inset, y, 0xFFFFFF);
+            }
+            for (int x = 24 + inset; x <= 40 - inset; x++) {
+                image.setRGB(x, 29 - inset, 0xFFFFFF);
+            }
+        }
+        assertMatchesBinarizingFinder(image, 0xFFFFFF, 10);
+    }
+
+    /** A recycling labeler never holds more labels than one row can use, however noisy the image. */
+    @Test
+    void testRecycledLabelsStayWithinOneRow() {
+        Random random = new Random(11);
+        int width = 64;
+        RowLabeler labeler = new RowLabeler(width, 0, Connectivity.FOUR, new GroupCollector(GroupQuery.ALL));
+        int[] row = new int[width];
+        for (int y = 0; y < 500; y++) {
+            for (int x = 0; x < width; x++) {
+                row[x] = (x + y) % 2 == 0 || random.nextInt(4) == 0 ? 1 : 0;
+            }
+            labeler.addRow(row);
+            assertTrue(labeler.labelCount() <= width / 2 + 1, "Too many labels after row " + y);
+        }
+    }
+
+    /** Null image should throw. */
+    @Test
+    void testNullImage() {
+        DistanceImageBinarizer binarizer = new DistanceImageBinarizer(new EuclideanColorDistance(), 0, 10);
+        FusedImageGroupFinder finder = new FusedImageGroupFinder(binarizer);
+        assertThrows(IllegalArgumentException.class, () -> finder.findConnectedGroups(null));
+    }
+
+    /** Null binarizer should throw. */
+    @Test
+    void testNullBinarizer() {
+        assertThrows(IllegalArgumentException.class, () -> new FusedImageGroupFinder(null));
+    }
+}
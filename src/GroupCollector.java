@@ -0,0 +1,115 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.ToIntFunction;
+
+/**
+ * Gathers the groups a finder discovers and hands them back in descending order, keeping only
+ * the ones a GroupQuery asks for.
+ *
+ * Groups smaller than the query's minimum size are dropped before a Group object is even created.
+ * When the query has a limit, the groups kept so far sit in a min-heap of at most limit groups,
+ * so a new group only has to beat the smallest one kept, and only limit groups are ever sorted.
+ */
+final class GroupCollector {
+    private final Ranking<Group> groups;
+
+    GroupCollector(GroupQuery query) {
+        this.groups = new Ranking<>(query, Group::size);
+    }
+
+    /**
+     * Offers a group given by its pixel count and coordinate sums.
+     */
+    void add(int count, long sumX, long sumY) {
+        if (!groups.wants(count)) return;
+
+        groups.add(GroupFinderSupport.toGroup(count, sumX, sumY));
+    }
+
+    /**
+     * @return whether a group of the given size could still be kept
+     */
+    boolean wants(int count) {
+        return groups.wants(count);
+    }
+
+    /**
+     * Offers a group that has already been built.
+     */
+    void add(Group group) {
+        groups.add(group);
+    }
+
+    /**
+     * @return the kept groups in descending order
+     */
+    List<Group> result() {
+        return groups.result();
+    }
+
+    /**
+     * The list or bounded heap behind a GroupCollector, for anything that is ordered like groups
+     * and has a size, such as GroupStats.
+     */
+    static final class Ranking<T extends Comparable<? super T>> {
+        private final GroupQuery query;
+        private final ToIntFunction<? super T> sizeOf;
+        private final List<T> items;
+        private final PriorityQueue<T> heap;
+
+        Ranking(GroupQuery query, ToIntFunction<? super T> sizeOf) {
+            if (query == null) {
+                throw new IllegalArgumentException("Query cannot be null");
+            }
+            this.query = query;
+            this.sizeOf = sizeOf;
+            if (query.isLimited()) {
+                this.items = null;
+                this.heap = new PriorityQueue<>();
+            } else {
+                this.items = new ArrayList<>();
+                this.heap = null;
+            }
+        }
+
+        /**
+         * @return whether an item of the given size could still be kept, so it is worth building
+         */
+        boolean wants(int size) {
+            if (size < query.minSize()) return false;
+            return heap == null || heap.size() < query.limit()
+                    || (!heap.isEmpty() && size >= sizeOf.applyAsInt(heap.peek()));
+        }
+
+        /**
+         * Offers an item that has already been built.
+         */
+        void add(T item) {
+            if (sizeOf.applyAsInt(item) < query.minSize()) return;
+
+            if (heap == null) {
+                items.add(item);
+            } else if (heap.size() < query.limit()) {
+                heap.add(item);
+            } else if (!heap.isEmpty() && item.compareTo(heap.peek()) > 0) {
+                heap.poll();
+                heap.add(item);
+            }
+        }
+
+        /**
+         * @return the kept items in descending order
+         */
+        List<T> result() {
+            if (heap == null) {
+                GroupFinderSupport.sortDescending(items);
+                return items;
+            }
+
+            List<T> result = new ArrayList<>(heap);
+            GroupFinderSupport.sortDescending(result);
+            return result;
+        }
+    }
+}
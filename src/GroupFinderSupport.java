@@ -0,0 +1,98 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Helpers shared by the BinaryGroupFinder implementations so that every finder
+ * validates its input, computes centroids and orders its groups in exactly the same way.
+ */
+final class GroupFinderSupport {
+    /**
+     * The order groups are returned in: the reverse of Group's natural order, so the largest
+     * size first, with ties broken by descending x and then descending y of the centroid.
+     */
+    static final Comparator<Group> DESCENDING = Comparator.reverseOrder();
+
+    // Lists at least this long are sorted on several threads
+    static final int PARALLEL_SORT_THRESHOLD = 1 << 16;
+
+    private GroupFinderSupport() {
+    }
+
+    /**
+     * Checks that the given binary image is a rectangular 2D array.
+     *
+     * @param image the binary image to check
+     * @return true if the image has at least one pixel, false if it is empty
+     * @throws NullPointerException if the array or any of its rows are null
+     * @throws IllegalArgumentException if the rows do not all have the same length
+     */
+    static boolean validate(int[][] image) {
+        if (image == null) {
+            throw new NullPointerException("Cannot be null");
+        }
+        if (image.length == 0 || image[0].length == 0) {
+            return false;
+        }
+
+        int cols = image[0].length;
+        for (int[] row : image) {
+            if (row == null) {
+                throw new NullPointerException("Row cannot be null.");
+            }
+            if (row.length != cols) {
+                throw new IllegalArgumentException("Must have the same length!");
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Builds a group from its pixel count and coordinate sums, using integer division
+     * for the centroid. The sums are longs so that large groups cannot overflow.
+     */
+    static Group toGroup(int count, long sumX, long sumY) {
+        return new Group(count, new Coordinate((int) (sumX / count), (int) (sumY / count)));
+    }
+
+    /**
+     * Sorts the groups, or anything ordered like them, in place into the order finders return them in.
+     * Noisy images can have hundreds of thousands of groups, so long lists are sorted with Arrays.parallelSort.
+     */
+    static <T extends Comparable<? super T>> void sortDescending(List<T> groups) {
+        if (groups.size() < PARALLEL_SORT_THRESHOLD) {
+            groups.sort(Comparator.reverseOrder());
+            return;
+        }
+
+        // T erases to Comparable, so an array of Comparable can stand in for an array of T
+        @SuppressWarnings("unchecked")
+        T[] sorted = (T[]) groups.toArray(new Comparable<?>[0]);
+        Arrays.parallelSort(sorted, Comparator.reverseOrder());
+        for (int i = 0; i < sorted.length; i++) {
+            groups.set(i, sorted[i]);
+        }
+    }
+
+    /**
+     * Moves every group's centroid by (dx, dy), for groups found in a sub-image that starts at
+     * (dx, dy). Integer-division centroids move exactly, and the order of the groups is unchanged.
+     *
+     * @param groups the groups in sub-image coordinates
+     * @param dx the sub-image's left column in the full image
+     * @param dy the sub-image's top row in the full image
+     * @return the groups in full-image coordinates
+     */
+    static List<Group> translate(List<Group> groups, int dx, int dy) {
+        if (dx == 0 && dy == 0) {
+            return groups;
+        }
+        List<Group> moved = new ArrayList<>(groups.size());
+        for (Group group : groups) {
+            Coordinate centroid = group.centroid();
+            moved.add(new Group(group.size(), new Coordinate(centroid.x() + dx, centroid.y() + dy)));
+        }
+        return moved;
+    }
+}
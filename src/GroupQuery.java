@@ -0,0 +1,60 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Describes which of the connected groups a caller actually wants back from a group finder.
+ *
+ * Groups with fewer than minSize pixels are dropped, and of the groups that are left only the
+ * first limit in descending order (that is, the limit largest groups) are kept. Finders that
+ * support queries directly discard unwanted groups as soon as they are found and keep the wanted
+ * ones in a heap of at most limit groups, instead of building and sorting every group first.
+ *
+ * A query only picks from the groups a finder finds. A BinarizingImageGroupFinder in pyramid mode
+ * without refinement can miss thin groups however large they are, so its top limit groups can
+ * differ from the top limit groups at full resolution.
+ *
+ * @param minSize the smallest group size to keep, 0 or 1 to keep every group
+ * @param limit the most groups to return, Integer.MAX_VALUE for no limit
+ */
+public record GroupQuery(int minSize, int limit) {
+    /** A query that keeps every group. */
+    public static final GroupQuery ALL = new GroupQuery(0, Integer.MAX_VALUE);
+
+    /**
+     * Checks that the size and limit are not negative.
+     */
+    public GroupQuery {
+        if (minSize < 0) {
+            throw new IllegalArgumentException("Minimum size cannot be negative");
+        }
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit cannot be negative");
+        }
+    }
+
+    /**
+     * @return true if this query has a limit on the number of groups
+     */
+    public boolean isLimited() {
+        return limit != Integer.MAX_VALUE;
+    }
+
+    /**
+     * Applies this query to a list of groups that is already sorted in descending order.
+     * Used by finders that do not support queries directly.
+     *
+     * @param sortedGroups every group, sorted in descending order
+     * @return the groups this query keeps, still in descending order
+     */
+    public List<Group> apply(List<Group> sortedGroups) {
+        List<Group> result = new ArrayList<>();
+        for (Group group : sortedGroups) {
+            // Sorted by size first, so every group after a too-small one is too small as well
+            if (result.size() == limit || group.size() < minSize) {
+                break;
+            }
+            result.add(group);
+        }
+        return result;
+    }
+}
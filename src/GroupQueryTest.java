@@ -0,0 +1,106 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for GroupQuery and the query overloads of every group finder.
+ */
+public class GroupQueryTest {
+
+    /** Applying a query to a sorted list keeps the largest groups above the minimum size. */
+    @Test
+    void testApply() {
+        List<Group> sorted = List.of(
+                new Group(9, new Coordinate(1, 1)),
+                new Group(5, new Coordinate(4, 2)),
+                new Group(5, new Coordinate(3, 7)),
+                new Group(2, new Coordinate(0, 0)));
+
+        assertEquals(sorted, GroupQuery.ALL.apply(sorted));
+        assertEquals(sorted.subList(0, 3), new GroupQuery(3, Integer.MAX_VALUE).apply(sorted));
+        assertEquals(sorted.subList(0, 2), new GroupQuery(0, 2).apply(sorted));
+        assertEquals(sorted.subList(0, 1), new GroupQuery(6, 2).apply(sorted));
+        assertEquals(List.of(), new GroupQuery(0, 0).apply(sorted));
+    }
+
+    /** Negative sizes and limits are rejected. */
+    @Test
+    void testInvalidQuery() {
+        assertThrows(IllegalArgumentException.class, () -> new GroupQuery(-1, 5));
+        assertThrows(IllegalArgumentException.class, () -> new GroupQuery(0, -5));
+    }
+
+    /** Every finder gives the same result as finding every group and then applying the query. */
+    @Test
+    void testFindersMatchFilteringAfterwards() {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            List<BinaryGroupFinder> finders = List.of(
+                    new DfsBinaryGroupFinder(),
+                    new ScanlineBinaryGroupFinder(),
+                    new UnionFindBinaryGroupFinder(),
+                    new ParallelBinaryGroupFinder(pool, 0));
+            GroupQuery[] queries = {
+                    GroupQuery.ALL,
+                    new GroupQuery(3, Integer.MAX_VALUE),
+                    new GroupQuery(0, 10),
+                    new GroupQuery(2, 5),
+                    new GroupQuery(1, 1),
+                    new GroupQuery(0, 0),
+                    new GroupQuery(1000, 10)};
+
+            Random random = new Random(8);
+            for (int trial = 0; trial < 10; trial++) {
+                int[][] image = TestImages.randomMask(random, 1 + random.nextInt(60), 1 + random.nextInt(60), 0.45);
+                List<Group> all = new ReferenceBinaryGroupFinder().findConnectedGroups(image);
+
+                for (GroupQuery query : queries) {
+                    List<Group> expected = query.apply(all);
+                    for (BinaryGroupFinder finder : finders) {
+                        assertEquals(expected, finder.findConnectedGroups(image, query),
+                                finder.getClass().getSimpleName() + " with " + query);
+                        assertEquals(expected, finder.findConnectedGroupsInMask(BinaryMask.fromArray(image), query),
+                                finder.getClass().getSimpleName() + " mask with " + query);
+                    }
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /** Image group finders pass the query on and agree with filtering afterwards. */
+    @Test
+    void testImageGroupFinders() {
+        Random random = new Random(9);
+        BufferedImage image = new BufferedImage(50, 40, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < 40; y++) {
+            for (int x = 0; x < 50; x++) {
+                image.setRGB(x, y, random.nextBoolean() ? 0xFFFFFF : 0x000000);
+            }
+        }
+        DistanceImageBinarizer binarizer = new DistanceImageBinarizer(new EuclideanColorDistance(), 0xFFFFFF, 10);
+        GroupQuery query = new GroupQuery(2, 4);
+
+        ImageGroupFinder binarizing = new BinarizingImageGroupFinder(binarizer, new ScanlineBinaryGroupFinder());
+        List<Group> expected = query.apply(binarizing.findConnectedGroups(image));
+        assertEquals(4, expected.size());
+        assertEquals(expected, binarizing.findConnectedGroups(image, query));
+        assertEquals(expected, new FusedImageGroupFinder(binarizer).findConnectedGroups(image, query));
+    }
+
+    /** A null query is rejected. */
+    @Test
+    void testNullQuery() {
+        int[][] image = {{1}};
+        assertThrows(IllegalArgumentException.class,
+                () -> new ScanlineBinaryGroupFinder().findConnectedGroups(image, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> new DfsBinaryGroupFinder().findConnectedGroups(image, null));
+    }
+}
@@ -0,0 +1,129 @@
+import java.util.Locale;
+
+/**
+ * A group together with shape statistics gathered while its pixels were being labeled.
+ *
+ * Besides the plain Group, with its size and integer-division centroid, this holds:
+ *   - the exact centroid in double precision,
+ *   - the bounding box, from (minX, minY) to (maxX, maxY) inclusive,
+ *   - the second central moments of the pixel coordinates: varianceX, varianceY and covarianceXY,
+ *     each divided by the size, so a single pixel has all three equal to 0,
+ *   - the perimeter, the number of pixels in the group with a vertical or horizontal neighbour that
+ *     is black or outside the image.
+ *
+ * Orientation and eccentricity are worked out from the moments. Like Group, GroupStats are ordered
+ * by size, then centroid x, then centroid y, using the plain Group.
+ */
+public record GroupStats(Group group, double centroidX, double centroidY,
+        int minX, int minY, int maxX, int maxY,
+        double varianceX, double varianceY, double covarianceXY, int perimeter) implements Comparable<GroupStats> {
+
+    /**
+     * Builds the statistics of a group from the running sums kept while labeling it.
+     *
+     * @param count the number of pixels
+     * @param sumX the sum of the x coordinates
+     * @param sumY the sum of the y coordinates
+     * @param sumXX the sum of the squared x coordinates
+     * @param sumYY the sum of the squared y coordinates
+     * @param sumXY the sum of x times y
+     * @param minX the smallest x coordinate
+     * @param minY the smallest y coordinate
+     * @param maxX the largest x coordinate
+     * @param maxY the largest y coordinate
+     * @param perimeter the number of pixels on the group's edge
+     * @return the statistics
+     */
+    static GroupStats fromSums(int count, long sumX, long sumY, long sumXX, long sumYY, long sumXY,
+            int minX, int minY, int maxX, int maxY, int perimeter) {
+        double meanX = (double) sumX / count;
+        double meanY = (double) sumY / count;
+        // Subtracting the product of sums first keeps the error small for groups far from the origin
+        double varianceX = (sumXX - (double) sumX * sumX / count) / count;
+        double varianceY = (sumYY - (double) sumY * sumY / count) / count;
+        double covarianceXY = (sumXY - (double) sumX * sumY / count) / count;
+        return new GroupStats(GroupFinderSupport.toGroup(count, sumX, sumY), meanX, meanY,
+                minX, minY, maxX, maxY, Math.max(0, varianceX), Math.max(0, varianceY), covarianceXY, perimeter);
+    }
+
+    /**
+     * @return the number of pixels in the group
+     */
+    public int size() {
+        return group.size();
+    }
+
+    /**
+     * @return the width of the bounding box in pixels
+     */
+    public int width() {
+        return maxX - minX + 1;
+    }
+
+    /**
+     * @return the height of the bounding box in pixels
+     */
+    public int height() {
+        return maxY - minY + 1;
+    }
+
+    /**
+     * Returns the angle of the group's major axis, measured from the x axis towards the y axis
+     * (clockwise on screen, since y increases downward).
+     *
+     * @return the angle in radians, between -pi/2 and pi/2, or 0 for a group with no preferred direction
+     */
+    public double orientation() {
+        return 0.5 * Math.atan2(2 * covarianceXY, varianceX - varianceY);
+    }
+
+    /**
+     * Returns the eccentricity of the ellipse with the same second moments as the group:
+     * 0 for a circle or a square, approaching 1 for a long thin line.
+     *
+     * @return the eccentricity, between 0 and 1, or 0 for a single pixel
+     */
+    public double eccentricity() {
+        double mean = (varianceX + varianceY) / 2;
+        double spread = Math.hypot((varianceX - varianceY) / 2, covarianceXY);
+        double major = mean + spread;
+        double minor = Math.max(0, mean - spread);
+        return major == 0 ? 0 : Math.sqrt(1 - minor / major);
+    }
+
+    /**
+     * Returns these statistics moved by (dx, dy), as if the group had been found in a larger image.
+     *
+     * @param dx how far to move right
+     * @param dy how far to move down
+     * @return the moved statistics; the moments and perimeter do not change
+     */
+    public GroupStats translate(int dx, int dy) {
+        if (dx == 0 && dy == 0) {
+            return this;
+        }
+        Coordinate centroid = group.centroid();
+        return new GroupStats(new Group(group.size(), new Coordinate(centroid.x() + dx, centroid.y() + dy)),
+                centroidX + dx, centroidY + dy, minX + dx, minY + dy, maxX + dx, maxY + dy,
+                varianceX, varianceY, covarianceXY, perimeter);
+    }
+
+    @Override
+    public int compareTo(GroupStats other) {
+        return group.compareTo(other.group);
+    }
+
+    /**
+     * Returns a string representing these statistics in comma-separated values (CSV) format.
+     * The format is "size,x,y,centroidX,centroidY,minX,minY,maxX,maxY,varianceX,varianceY,
+     * covarianceXY,perimeter,orientation,eccentricity". The first three columns are the same as
+     * Group.toCsvRow, and the double values have three decimal places.
+     *
+     * @return a CSV row string representing the group's statistics
+     */
+    public String toCsvRow() {
+        return String.format(Locale.ROOT, "%s,%.3f,%.3f,%d,%d,%d,%d,%.3f,%.3f,%.3f,%d,%.3f,%.3f",
+                group.toCsvRow(), centroidX, centroidY, minX, minY, maxX, maxY,
+                varianceX, varianceY, covarianceXY, perimeter, orientation(), eccentricity());
+    }
+}
@@ -0,0 +1,181 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Follows groups from frame to frame and gives each object a stable ID.
+ *
+ * The tracker remembers the last centroid of every track. The groups of a new frame are matched to
+ * tracks by centroid distance: pairs further apart than the maximum distance are never matched, and
+ * among the rest the closest pair is matched first, then the closest remaining pair, and so on.
+ * A group with no track close enough starts a new track with the next unused ID, counting from 1.
+ * A track with no group close enough keeps its last centroid and may be picked up again, but is
+ * dropped once it has gone unmatched for more than the allowed number of frames in a row.
+ *
+ * The tracks are kept in a grid of square cells as wide as the maximum distance, so a group is
+ * only compared with the tracks in the 3x3 cells around it rather than with every track. Matching a
+ * frame takes time in proportion to the number of groups and nearby tracks, not their product.
+ *
+ * A tracker holds state about the frames it has seen, so frames must be given to it in order and
+ * from one thread at a time.
+ */
+public class GroupTracker {
+    /** How many frames in a row a track may go unmatched by default before it is dropped. */
+    public static final int DEFAULT_MAX_MISSED_FRAMES = 5;
+
+    private final double maxDistance;
+    private final long cellSize;
+    private final int maxMissedFrames;
+
+    private final List<Track> tracks = new ArrayList<>();
+    private int nextId = 1;
+
+    /**
+     * Constructs a GroupTracker that drops tracks after the default number of missed frames.
+     *
+     * @param maxDistance how far, in pixels, a centroid may move between frames and keep its ID
+     */
+    public GroupTracker(double maxDistance) {
+        this(maxDistance, DEFAULT_MAX_MISSED_FRAMES);
+    }
+
+    /**
+     * Constructs a GroupTracker.
+     *
+     * @param maxDistance how far, in pixels, a centroid may move between frames and keep its ID
+     * @param maxMissedFrames how many frames in a row a track may go unmatched and still be kept
+     */
+    public GroupTracker(double maxDistance, int maxMissedFrames) {
+        if (!(maxDistance >= 0) || Double.isInfinite(maxDistance)) {
+            throw new IllegalArgumentException("Max distance must be a non-negative number");
+        }
+        if (maxMissedFrames < 0) {
+            throw new IllegalArgumentException("Max missed frames cannot be negative");
+        }
+        this.maxDistance = maxDistance;
+        this.cellSize = Math.max(1, (long) Math.ceil(maxDistance));
+        this.maxMissedFrames = maxMissedFrames;
+    }
+
+    /**
+     * Matches the groups of the next frame to the current tracks.
+     *
+     * @param groups the groups of the next frame
+     * @return the groups with their track IDs, in the same order as groups
+     */
+    public List<TrackedGroup> update(List<Group> groups) {
+        if (groups == null) {
+            throw new IllegalArgumentException("Groups cannot be null");
+        }
+
+        Map<Long, List<Track>> grid = new HashMap<>();
+        for (Track track : tracks) {
+            track.matched = false;
+            grid.computeIfAbsent(cell(track.x, track.y), key -> new ArrayList<>()).add(track);
+        }
+
+        // Every track close enough to each group, from the cells around the group
+        List<Candidate> candidates = new ArrayList<>();
+        double maxDistanceSquared = maxDistance * maxDistance;
+        for (int index = 0; index < groups.size(); index++) {
+            Coordinate centroid = groups.get(index).centroid();
+            long column = Math.floorDiv(centroid.x(), cellSize);
+            long row = Math.floorDiv(centroid.y(), cellSize);
+            for (long r = row - 1; r <= row + 1; r++) {
+                for (long c = column - 1; c <= column + 1; c++) {
+                    List<Track> nearby = grid.get(key(c, r));
+                    if (nearby == null) {
+                        continue;
+                    }
+                    for (Track track : nearby) {
+                        long dx = track.x - centroid.x();
+                        long dy = track.y - centroid.y();
+                        long distanceSquared = dx * dx + dy * dy;
+                        if (distanceSquared <= maxDistanceSquared) {
+                            candidates.add(new Candidate(distanceSquared, track, index));
+                        }
+                    }
+                }
+            }
+        }
+        candidates.sort(Comparator.comparingLong(Candidate::distanceSquared)
+                .thenComparingInt(candidate -> candidate.track().id)
+                .thenComparingInt(Candidate::group));
+
+        int[] ids = new int[groups.size()];
+        for (Candidate candidate : candidates) {
+            Track track = candidate.track();
+            if (track.matched || ids[candidate.group()] != 0) {
+                continue;
+            }
+            Coordinate centroid = groups.get(candidate.group()).centroid();
+            track.matched = true;
+            track.x = centroid.x();
+            track.y = centroid.y();
+            track.missed = 0;
+            ids[candidate.group()] = track.id;
+        }
+
+        for (Iterator<Track> it = tracks.iterator(); it.hasNext();) {
+            Track track = it.next();
+            if (!track.matched && ++track.missed > maxMissedFrames) {
+                it.remove();
+            }
+        }
+
+        List<TrackedGroup> tracked = new ArrayList<>(groups.size());
+        for (int index = 0; index < groups.size(); index++) {
+            Group group = groups.get(index);
+            if (ids[index] == 0) {
+                Track track = new Track(nextId++, group.centroid().x(), group.centroid().y());
+                tracks.add(track);
+                ids[index] = track.id;
+            }
+            tracked.add(new TrackedGroup(ids[index], group));
+        }
+        return tracked;
+    }
+
+    /**
+     * @return the number of tracks currently kept, including ones that missed recent frames
+     */
+    public int trackCount() {
+        return tracks.size();
+    }
+
+    /**
+     * Drops every track. IDs keep counting from where they were, so an ID is never reused.
+     */
+    public void reset() {
+        tracks.clear();
+    }
+
+    private long cell(int x, int y) {
+        return key(Math.floorDiv(x, cellSize), Math.floorDiv(y, cellSize));
+    }
+
+    private static long key(long column, long row) {
+        return (column << 32) ^ (row & 0xFFFFFFFFL);
+    }
+
+    // The last known centroid of one object
+    private static final class Track {
+        final int id;
+        int x;
+        int y;
+        int missed;
+        boolean matched;
+
+        Track(int id, int x, int y) {
+            this.id = id;
+            this.x = x;
+            this.y = y;
+        }
+    }
+
+    // A group and a track close enough to be matched
+    private record Candidate(long distanceSquared, Track track, int group) {}
+}
@@ -0,0 +1,121 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for GroupTracker and TrackedGroup.
+ */
+public class GroupTrackerTest {
+
+    private static Group group(int size, int x, int y) {
+        return new Group(size, new Coordinate(x, y));
+    }
+
+    private static List<Integer> ids(List<TrackedGroup> tracked) {
+        return tracked.stream().map(TrackedGroup::id).toList();
+    }
+
+    /** Groups that move a little keep their IDs, in the order the groups were given. */
+    @Test
+    void testKeepsIds() {
+        GroupTracker tracker = new GroupTracker(5);
+        assertEquals(List.of(1, 2), ids(tracker.update(List.of(group(10, 0, 0), group(5, 50, 50)))));
+        assertEquals(List.of(2, 1), ids(tracker.update(List.of(group(9, 52, 49), group(8, 3, 4)))));
+
+        TrackedGroup tracked = tracker.update(List.of(group(7, 6, 8))).get(0);
+        assertEquals(1, tracked.id());
+        assertEquals("1,7,6,8", tracked.toCsvRow());
+    }
+
+    /** A group further than the max distance starts a new track. */
+    @Test
+    void testGating() {
+        GroupTracker tracker = new GroupTracker(5, 0);
+        tracker.update(List.of(group(1, 10, 10)));
+        assertEquals(List.of(2), ids(tracker.update(List.of(group(1, 14, 14)))));
+        // Exactly at the max distance still matches
+        assertEquals(List.of(2), ids(tracker.update(List.of(group(1, 17, 18)))));
+    }
+
+    /** The closest pair is matched first, even when another group is listed first. */
+    @Test
+    void testNearestWins() {
+        GroupTracker tracker = new GroupTracker(10);
+        tracker.update(List.of(group(1, 20, 20)));
+        assertEquals(List.of(2, 1), ids(tracker.update(List.of(group(5, 26, 20), group(1, 21, 20)))));
+    }
+
+    /** A lost track can be picked up again until it has missed too many frames. */
+    @Test
+    void testExpiry() {
+        GroupTracker tracker = new GroupTracker(3, 2);
+        tracker.update(List.of(group(1, 0, 0), group(1, 100, 100)));
+        tracker.update(List.of(group(1, 100, 100)));
+        tracker.update(List.of(group(1, 100, 100)));
+        assertEquals(2, tracker.trackCount());
+        assertEquals(List.of(1, 2), ids(tracker.update(List.of(group(1, 1, 1), group(1, 100, 100)))));
+
+        tracker.update(List.of());
+        tracker.update(List.of());
+        assertEquals(2, tracker.trackCount());
+        tracker.update(List.of());
+        assertEquals(0, tracker.trackCount());
+        assertEquals(List.of(3), ids(tracker.update(List.of(group(1, 1, 1)))));
+
+        tracker.reset();
+        assertEquals(List.of(4), ids(tracker.update(List.of(group(1, 1, 1)))));
+    }
+
+    /** Thousands of jittering groups, given in a different order each frame, all keep their IDs. */
+    @Test
+    void testManyGroups() {
+        Random random = new Random(22);
+        int[][] positions = new int[4000][2];
+        for (int i = 0; i < positions.length; i++) {
+            // Spread out on a grid so no two groups come within the max distance of each other
+            positions[i][0] = (i % 80) * 60 - 1800;
+            positions[i][1] = (i / 80) * 60 - 1200;
+        }
+
+        GroupTracker tracker = new GroupTracker(4);
+        int[] ids = new int[positions.length];
+        for (int frame = 0; frame < 10; frame++) {
+            List<Integer> order = new ArrayList<>();
+            List<Group> groups = new ArrayList<>();
+            for (int i = 0; i < positions.length; i++) {
+                order.add(i);
+            }
+            Collections.shuffle(order, random);
+            for (int i : order) {
+                positions[i][0] += random.nextInt(5) - 2;
+                positions[i][1] += random.nextInt(5) - 2;
+                groups.add(group(1, positions[i][0], positions[i][1]));
+            }
+
+            List<TrackedGroup> tracked = tracker.update(groups);
+            for (int j = 0; j < order.size(); j++) {
+                int i = order.get(j);
+                if (frame == 0) {
+                    ids[i] = tracked.get(j).id();
+                } else {
+                    assertEquals(ids[i], tracked.get(j).id());
+                }
+            }
+        }
+        assertEquals(positions.length, tracker.trackCount());
+    }
+
+    /** Bad arguments are rejected. */
+    @Test
+    void testInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> new GroupTracker(-1));
+        assertThrows(IllegalArgumentException.class, () -> new GroupTracker(Double.NaN));
+        assertThrows(IllegalArgumentException.class, () -> new GroupTracker(5, -1));
+        assertThrows(IllegalArgumentException.class, () -> new GroupTracker(5).update(null));
+    }
+}
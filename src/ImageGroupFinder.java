@@ -1,4 +1,5 @@
 import java.util.List;
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
 
 public interface ImageGroupFinder {
@@ -10,4 +11,51 @@ public interface ImageGroupFinder {
      * @return connected groups in an image sorted in descending order
      */
     public List<Group> findConnectedGroups(BufferedImage image);
+
+    /**
+     * Finds only the connected groups the query asks for: those with at least query.minSize()
+     * pixels, and of those at most query.limit() of the largest.
+     *
+     * The default implementation finds and sorts every group and then applies the query.
+     * @param image
+     * @param query which groups to keep
+     * @return the kept groups sorted in descending order
+     */
+    public default List<Group> findConnectedGroups(BufferedImage image, GroupQuery query) {
+        if (query == null) {
+            throw new IllegalArgumentException("Query cannot be null");
+        }
+        return query.apply(findConnectedGroups(image));
+    }
+
+    /**
+     * Finds the connected groups the query asks for among the pixels inside a region of interest.
+     * Pixels outside the region count as black, and centroids are reported in full-image coordinates.
+     *
+     * The default implementation runs the finder on a sub-image covering the region's clipped bounds,
+     * so it only supports rectangular regions; finders that binarize themselves override it to also
+     * support polygons.
+     * @param image
+     * @param region the part of the image to search
+     * @param query which groups to keep
+     * @return the kept groups sorted in descending order
+     * @throws UnsupportedOperationException if the region is a polygon and this finder cannot mask it
+     */
+    public default List<Group> findConnectedGroups(BufferedImage image, RegionOfInterest region, GroupQuery query) {
+        if (image == null) {
+            throw new IllegalArgumentException("Image cannot be null");
+        }
+        if (region == null || query == null) {
+            throw new IllegalArgumentException("Region and query cannot be null");
+        }
+        if (!region.isRectangle()) {
+            throw new UnsupportedOperationException(getClass().getSimpleName() + " only supports rectangular regions");
+        }
+        Rectangle clip = region.clip(image);
+        if (clip.isEmpty()) {
+            return List.of();
+        }
+        List<Group> groups = findConnectedGroups(image.getSubimage(clip.x, clip.y, clip.width, clip.height), query);
+        return GroupFinderSupport.translate(groups, clip.x, clip.y);
+    }
 }
@@ -1,7 +1,10 @@
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.PrintWriter;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import javax.imageio.ImageIO;
 
 /**
@@ -18,20 +21,71 @@ import javax.imageio.ImageIO;
  * 2. Parses the target color from the hex string into a 24-bit integer.
  * 3. Binarizes the image by comparing each pixel's Euclidean color distance to the target color.
  *    A pixel is marked white (1) if its distance is less than the threshold; otherwise, it is marked black (0).
- * 4. Converts the binary array back to a BufferedImage and writes the binarized image to disk as "binarized.png".
- * 5. Finds connected groups of white pixels in the binary image.
- *    Pixels are connected vertically and horizontally (not diagonally).
+ * 4. Converts the binary array back to a 1-bit black and white image and writes it to disk as "binarized.png".
+ *    The PNG is encoded on a background thread while the groups are found and written.
+ * 5. Finds connected groups of white pixels in the same binary array.
+ *    Pixels are connected vertically and horizontally, and also diagonally with --connectivity 8.
  *    For each group, the size (number of pixels) and the centroid (calculated using integer division) are computed.
  * 6. Writes a CSV file named "groups.csv" containing one row per group in the format "size,x,y".
  *    Coordinates follow the convention: (x:0, y:0) is the top-left, with x increasing to the right and y increasing downward.
  * 
+ * Optional flags after the threshold, each rejected by the modes that do not support it:
+ *   --min-size <n>   only write groups with at least n pixels
+ *   --top <k>        only write the k largest groups
+ *   --no-binarized   skip binarized.png (batch mode: skip the name_binarized.png files)
+ *   --metrics        print the time, pixels, groups and allocation of each stage at the end
+ *                    (single-image and sequence modes)
+ *   --connectivity <4|8>
+ *                    connect pixels only vertically and horizontally (4, the default), or
+ *                    diagonally as well (8) (all modes)
+ *   --stats          also write "group_stats.csv" with each group's bounding box, moments and
+ *                    perimeter (single-image mode)
+ *   --incremental    only binarize and relabel the parts of each frame that changed since the
+ *                    previous one (sequence mode)
+ *   --track <d>      give each group an ID that follows it while it moves at most d pixels per
+ *                    frame, writing rows as "frame,id,size,x,y" (sequence mode)
+ * 
+ *   --roi <x,y,w,h>  only search the given rectangle of the image (single-image and sequence modes)
+ *   --roi-polygon <x1,y1,x2,y2,...>
+ *                    only search the given polygon; pixels outside it count as black
+ *                    Centroids are still reported in full-image coordinates. In single-image mode
+ *                    binarized.png then covers only the region's bounds.
+ * 
+ * The stages are also emitted as Java Flight Recorder events (centroidfinder.Decode, .Binarize, .Label
+ * and .Write) whenever a recording enables them, for example with -XX:StartFlightRecording.
+ * 
+ * Sequence mode processes every frame of a video that has been split into images, either a directory
+ * of frames or a numbered file pattern such as "frames/frame_%04d.png". Frames are decoded, labeled and
+ * written by a bounded pipeline (see FrameSequenceProcessor), and every group of every frame is written
+ * to the output CSV as a row in the format "frame,size,x,y". No binarized images are written.
+ * 
+ * Batch mode summarizes every image in a directory, or every file matching a glob such as "photos/*.jpg",
+ * concurrently (see BatchProcessor). Each image's "name_groups.csv" and "name_binarized.png" are written to
+ * the output directory, and the aggregate throughput is printed at the end. Inputs with the same name but
+ * a different directory or extension are rejected, since their outputs would overwrite each other.
+ * 
  * Usage:
- *   java ImageSummaryApp <input_image> <hex_target_color> <threshold>
+ *   java ImageSummaryApp <input_image> <hex_target_color> <threshold> [options]
+ *   java ImageSummaryApp sequence <frame_dir_or_pattern> <hex_target_color> <threshold> <output_csv> [options]
+ *   java ImageSummaryApp batch <input_dir_or_glob> <hex_target_color> <threshold> <output_dir> [options]
  */
 public class ImageSummaryApp {
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("sequence")) {
+            runSequence(args);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("batch")) {
+            runBatch(args);
+            return;
+        }
         if (args.length < 3) {
-            System.out.println("Usage: java ImageSummaryApp <input_image> <hex_target_color> <threshold>");
+            System.out.println("Usage: java ImageSummaryApp <input_image> <hex_target_color> <threshold> "
+                    + SummaryOptions.Mode.SINGLE.usage);
+            System.out.println("       java ImageSummaryApp sequence <frame_dir_or_pattern> <hex_target_color> <threshold> "
+                    + "<output_csv> " + SummaryOptions.Mode.SEQUENCE.usage);
+            System.out.println("       java ImageSummaryApp batch <input_dir_or_glob> <hex_target_color> <threshold> "
+                    + "<output_dir> " + SummaryOptions.Mode.BATCH.usage);
             return;
         }
         
@@ -44,16 +98,34 @@ public class ImageSummaryApp {
             System.err.println("Threshold must be an integer.");
             return;
         }
+
+        SummaryOptions options;
+        try {
+            options = SummaryOptions.parse(args, 3, SummaryOptions.Mode.SINGLE);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            return;
+        }
+        
+        // Only measure the stages when asked to; a null listener measures nothing.
+        MetricsRecorder metrics = options.metrics ? new MetricsRecorder() : null;
         
         BufferedImage inputImage = null;
         try {
+            StageTimer decode = StageTimer.start(metrics, PipelineStage.DECODE);
             inputImage = ImageIO.read(new File(inputImagePath));
+            decode.finish(inputImage == null ? 0 : (long) inputImage.getWidth() * inputImage.getHeight(), 0);
         } catch (Exception e) {
             System.err.println("Error loading image: " + inputImagePath);
             e.printStackTrace();
             return;
         }
-        
+        // ImageIO.read returns null rather than throwing when no reader understands the file
+        if (inputImage == null) {
+            System.err.println("Error loading image: could not decode " + inputImagePath);
+            return;
+        }
+
         // Parse the target color from a hex string (format RRGGBB) into a 24-bit integer (0xRRGGBB)
         int targetColor = 0;
         try {
@@ -67,36 +139,213 @@ public class ImageSummaryApp {
         ColorDistanceFinder distanceFinder = new EuclideanColorDistance();
         ImageBinarizer binarizer = new DistanceImageBinarizer(distanceFinder, targetColor, threshold);
         
-        // Binarize the input image.
-        int[][] binaryArray = binarizer.toBinaryArray(inputImage);
-        BufferedImage binaryImage = binarizer.toBufferedImage(binaryArray);
-        
-        // Write the binarized image to disk as "binarized.png".
-        try {
-            ImageIO.write(binaryImage, "png", new File("binarized.png"));
-            System.out.println("Binarized image saved as binarized.png");
-        } catch (Exception e) {
-            System.err.println("Error saving binarized image.");
-            e.printStackTrace();
+        // Only look at the region of interest, if there is one.
+        Rectangle area = new Rectangle(0, 0, inputImage.getWidth(), inputImage.getHeight());
+        if (options.region != null) {
+            area = options.region.clip(inputImage);
+            if (area.isEmpty()) {
+                System.err.println("Region of interest is outside the image.");
+                return;
+            }
         }
         
-        // Create an ImageGroupFinder using a BinarizingImageGroupFinder with a DFS-based BinaryGroupFinder.
-        ImageGroupFinder groupFinder = new BinarizingImageGroupFinder(binarizer, new DfsBinaryGroupFinder());
+        // Binarize the input image once; the same binary array feeds both outputs.
+        long pixels = (long) area.width * area.height;
+        StageTimer binarize = StageTimer.start(metrics, PipelineStage.BINARIZE);
+        int[][] binaryArray = options.region == null
+                ? binarizer.toBinaryArray(inputImage)
+                : binarizer.toBinaryArray(inputImage, options.region);
+        binarize.finish(pixels, 0);
         
-        // Find connected groups in the input image.
-        // The BinarizingImageGroupFinder is expected to internally binarize the image,
-        // then locate connected groups of white pixels.
-        List<Group> groups = groupFinder.findConnectedGroups(inputImage);
+        // Encode and write "binarized.png" on a background thread so groups.csv does not wait for it.
+        CompletableFuture<Void> binarizedWrite = CompletableFuture.completedFuture(null);
+        if (options.writeBinarized) {
+            binarizedWrite = CompletableFuture.runAsync(() -> {
+                try {
+                    StageTimer writeImage = StageTimer.start(metrics, PipelineStage.WRITE_IMAGE);
+                    ImageIO.write(binarizer.toBinaryImage(binaryArray), "png", new File("binarized.png"));
+                    writeImage.finish(pixels, 0);
+                    System.out.println("Binarized image saved as binarized.png");
+                } catch (Exception e) {
+                    System.err.println("Error saving binarized image.");
+                    e.printStackTrace();
+                }
+            });
+        }
+        
+        // Find connected groups of white pixels with a span-filling BinaryGroupFinder,
+        // keeping only the ones the options ask for. Statistics are gathered in the same pass
+        // by the same finder, and the groups are taken from them.
+        List<Group> groups;
+        List<GroupStats> stats = null;
+        StageTimer label = StageTimer.start(metrics, PipelineStage.LABEL);
+        ScanlineBinaryGroupFinder groupFinder = new ScanlineBinaryGroupFinder(options.connectivity);
+        if (options.stats) {
+            stats = groupFinder.findGroupStats(binaryArray, options.query());
+            groups = new ArrayList<>(stats.size());
+            for (GroupStats groupStats : stats) {
+                groups.add(groupStats.group());
+            }
+        } else {
+            groups = groupFinder.findConnectedGroups(binaryArray, options.query());
+        }
+        label.finish(pixels, groups);
+        // Report the centroids in full-image coordinates.
+        groups = GroupFinderSupport.translate(groups, area.x, area.y);
         
         // Write the groups information to a CSV file "groups.csv".
+        StageTimer writeGroups = StageTimer.start(metrics, PipelineStage.WRITE_GROUPS);
         try (PrintWriter writer = new PrintWriter("groups.csv")) {
             for (Group group : groups) {
                 writer.println(group.toCsvRow());
             }
+            writer.flush();
+            writeGroups.finish(0, groups.size());
             System.out.println("Groups summary saved as groups.csv");
         } catch (Exception e) {
             System.err.println("Error writing groups.csv");
             e.printStackTrace();
         }
+        
+        // Write the extended statistics to "group_stats.csv" if they were asked for.
+        if (stats != null) {
+            try (PrintWriter writer = new PrintWriter("group_stats.csv")) {
+                for (GroupStats groupStats : stats) {
+                    writer.println(groupStats.translate(area.x, area.y).toCsvRow());
+                }
+                System.out.println("Group statistics saved as group_stats.csv");
+            } catch (Exception e) {
+                System.err.println("Error writing group_stats.csv");
+                e.printStackTrace();
+            }
+        }
+        
+        // Let the mask image finish before exiting.
+        binarizedWrite.join();
+        if (metrics != null) {
+            System.out.print(metrics.summary());
+        }
+    }
+
+    /**
+     * Runs sequence mode: finds the groups in every frame and writes them all to one CSV.
+     */
+    private static void runSequence(String[] args) {
+        if (args.length < 5) {
+            System.out.println("Usage: java ImageSummaryApp sequence <frame_dir_or_pattern> <hex_target_color> <threshold> "
+                    + "<output_csv> " + SummaryOptions.Mode.SEQUENCE.usage);
+            return;
+        }
+
+        int threshold = 0;
+        try {
+            threshold = Integer.parseInt(args[3]);
+        } catch (NumberFormatException e) {
+            System.err.println("Threshold must be an integer.");
+            return;
+        }
+
+        int targetColor = 0;
+        try {
+            targetColor = Integer.parseInt(args[2], 16);
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid hex target color. Please provide a color in RRGGBB format.");
+            return;
+        }
+
+        SummaryOptions options;
+        List<File> frames;
+        try {
+            options = SummaryOptions.parse(args, 5, SummaryOptions.Mode.SEQUENCE);
+            frames = FrameSequence.resolve(args[1]);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            return;
+        }
+
+        // One binarizer and group finder are shared by every frame.
+        MetricsRecorder metrics = options.metrics ? new MetricsRecorder() : null;
+        DistanceImageBinarizer binarizer = new DistanceImageBinarizer(new EuclideanColorDistance(), targetColor, threshold);
+        ImageGroupFinder groupFinder;
+        if (options.incremental) {
+            // Frames are labeled in order on one thread, so the finder sees each frame after the one before it
+            if (options.region != null && !options.region.isRectangle()) {
+                System.err.println("--incremental only supports rectangular regions.");
+                return;
+            }
+            groupFinder = new IncrementalImageGroupFinder(binarizer, IncrementalImageGroupFinder.DEFAULT_TILE_SIZE,
+                    options.connectivity, metrics);
+        } else {
+            groupFinder = new BinarizingImageGroupFinder(binarizer, new ScanlineBinaryGroupFinder(options.connectivity),
+                    metrics);
+        }
+        if (options.region != null) {
+            groupFinder = new RegionImageGroupFinder(groupFinder, options.region);
+        }
+        GroupTracker tracker = options.trackDistance < 0 ? null : new GroupTracker(options.trackDistance);
+        FrameSequenceProcessor processor = new FrameSequenceProcessor(groupFinder, options.query(),
+                FrameSequenceProcessor.DEFAULT_QUEUE_CAPACITY, metrics, tracker);
+
+        String outputPath = args[4];
+        try (PrintWriter writer = new PrintWriter(outputPath)) {
+            int processed = processor.process(frames, writer);
+            System.out.println("Groups for " + processed + " of " + frames.size() + " frames saved as " + outputPath);
+            if (metrics != null) {
+                System.out.print(metrics.summary());
+            }
+        } catch (Exception e) {
+            System.err.println("Error writing " + outputPath);
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Runs batch mode: summarizes every input image concurrently into an output directory.
+     */
+    private static void runBatch(String[] args) {
+        if (args.length < 5) {
+            System.out.println("Usage: java ImageSummaryApp batch <input_dir_or_glob> <hex_target_color> <threshold> "
+                    + "<output_dir> " + SummaryOptions.Mode.BATCH.usage);
+            return;
+        }
+
+        int threshold = 0;
+        try {
+            threshold = Integer.parseInt(args[3]);
+        } catch (NumberFormatException e) {
+            System.err.println("Threshold must be an integer.");
+            return;
+        }
+
+        int targetColor = 0;
+        try {
+            targetColor = Integer.parseInt(args[2], 16);
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid hex target color. Please provide a color in RRGGBB format.");
+            return;
+        }
+
+        SummaryOptions options;
+        List<File> inputs;
+        try {
+            options = SummaryOptions.parse(args, 5, SummaryOptions.Mode.BATCH);
+            inputs = BatchProcessor.resolveInputs(args[1]);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            return;
+        }
+
+        // One binarizer and group finder are shared by every compute thread.
+        int processors = Runtime.getRuntime().availableProcessors();
+        ImageBinarizer binarizer = new DistanceImageBinarizer(new EuclideanColorDistance(), targetColor, threshold);
+        BatchProcessor processor = new BatchProcessor(binarizer, new ScanlineBinaryGroupFinder(options.connectivity),
+                options.query(), options.writeBinarized, processors, 2 * processors);
+
+        try {
+            BatchReport report = processor.process(inputs, new File(args[4]));
+            System.out.println(report.summary());
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+        }
     }
 }
@@ -0,0 +1,424 @@
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A stateful ImageGroupFinder for consecutive frames from a fixed camera, which only redoes the work
+ * for the parts of a frame that changed since the previous one.
+ *
+ * The finder keeps the previous frame's pixels, binary image, per-pixel labels and the size and
+ * coordinate sums of every group. Each new frame is compared with the previous one in square tiles.
+ * Only the tiles with a changed pixel are binarized again, and only the groups that had a pixel in or
+ * right next to a changed tile are labeled again; every other group keeps its label and sums as they
+ * were. A frame with no changed tiles costs one comparison pass over its pixels.
+ *
+ * The groups found are exactly the same as the ones found by a BinarizingImageGroupFinder with the
+ * same binarizer and a DfsBinaryGroupFinder with the same connectivity. A frame of a different
+ * size starts over from scratch.
+ *
+ * Because it remembers the previous frame, one instance should be used per camera, and calls are
+ * synchronized so frames from several threads are handled one at a time.
+ *
+ * An optional PipelineListener is told about the binarize stage, which compares the frame with the
+ * previous one and binarizes the changed tiles, and the label stage of every call, like
+ * BinarizingImageGroupFinder.
+ */
+public class IncrementalImageGroupFinder implements ImageGroupFinder {
+    /** The default width and height of a tile, in pixels. */
+    public static final int DEFAULT_TILE_SIZE = 32;
+
+    private final DistanceImageBinarizer binarizer;
+    private final int tileSize;
+    private final Connectivity connectivity;
+    private final boolean eightConnected;
+    private final PipelineListener listener;
+
+    private int width;
+    private int height;
+    private int tilesX;
+    private int tilesY;
+    // The previous frame's colors, with -1 before the first frame so every tile starts out changed
+    private int[] colors;
+    private byte[] white;
+    // The label of each white pixel, or 0 for black pixels
+    private int[] labels;
+    private boolean[] dirtyTiles;
+    private int dirtyTileCount;
+
+    // Per label: the group's size and coordinate sums, with size 0 for unused labels
+    private int[] sizes = new int[16];
+    private long[] sumsX = new long[16];
+    private long[] sumsY = new long[16];
+    // Per label: the update that created it, and the last update that found it touching a changed tile
+    private int[] createdIn = new int[16];
+    private int[] affectedIn = new int[16];
+    private int nextLabel = 1;
+    private IntStack freeLabels = new IntStack();
+    private int update;
+
+    private final IntStack affected = new IntStack();
+    private final IntStack seeds = new IntStack();
+    private final IntStack fill = new IntStack();
+
+    /**
+     * Constructs an IncrementalImageGroupFinder with the default tile size.
+     *
+     * @param binarizer the binarizer whose target color and threshold decide which pixels are white
+     */
+    public IncrementalImageGroupFinder(DistanceImageBinarizer binarizer) {
+        this(binarizer, DEFAULT_TILE_SIZE);
+    }
+
+    /**
+     * Constructs an IncrementalImageGroupFinder.
+     *
+     * @param binarizer the binarizer whose target color and threshold decide which pixels are white
+     * @param tileSize the width and height of the tiles frames are compared in, at least 1
+     */
+    public IncrementalImageGroupFinder(DistanceImageBinarizer binarizer, int tileSize) {
+        this(binarizer, tileSize, Connectivity.FOUR);
+    }
+
+    /**
+     * Constructs an IncrementalImageGroupFinder with the given connectivity.
+     *
+     * @param binarizer the binarizer whose target color and threshold decide which pixels are white
+     * @param tileSize the width and height of the tiles frames are compared in, at least 1
+     * @param connectivity which neighboring pixels are connected
+     */
+    public IncrementalImageGroupFinder(DistanceImageBinarizer binarizer, int tileSize, Connectivity connectivity) {
+        this(binarizer, tileSize, connectivity, null);
+    }
+
+    /**
+     * Constructs an IncrementalImageGroupFinder that reports the binarize and label stages of every
+     * frame to a listener.
+     *
+     * @param binarizer the binarizer whose target color and threshold decide which pixels are white
+     * @param tileSize the width and height of the tiles frames are compared in, at least 1
+     * @param connectivity which neighboring pixels are connected
+     * @param listener the listener to report to, or null to measure nothing
+     */
+    public IncrementalImageGroupFinder(DistanceImageBinarizer binarizer, int tileSize, Connectivity connectivity,
+            PipelineListener listener) {
+        if (binarizer == null) {
+            throw new IllegalArgumentException("Binarizer cannot be null");
+        }
+        if (tileSize < 1) {
+            throw new IllegalArgumentException("Tile size must be at least 1");
+        }
+        if (connectivity == null) {
+            throw new IllegalArgumentException("Connectivity cannot be null");
+        }
+        this.binarizer = binarizer;
+        this.tileSize = tileSize;
+        this.connectivity = connectivity;
+        this.eightConnected = connectivity == Connectivity.EIGHT;
+        this.listener = listener;
+    }
+
+    /**
+     * Finds connected groups of white pixels in the next frame, connected vertically and horizontally,
+     * and diagonally too with eight-connectivity.
+     * The groups are returned in descending order, according to the sorting defined in the Group record.
+     *
+     * @param image the next frame
+     * @return a list of groups representing connected white pixels in the frame
+     */
+    @Override
+    public List<Group> findConnectedGroups(BufferedImage image) {
+        return findConnectedGroups(image, GroupQuery.ALL);
+    }
+
+    /**
+     * Finds the connected groups of white pixels in the next frame that the query asks for.
+     *
+     * @param image the next frame
+     * @param query which groups to keep
+     * @return the kept groups in descending order
+     */
+    @Override
+    public synchronized List<Group> findConnectedGroups(BufferedImage image, GroupQuery query) {
+        if (image == null) {
+            throw new IllegalArgumentException("Image cannot be null");
+        }
+        GroupCollector groups = new GroupCollector(query);
+        long pixels = (long) image.getWidth() * image.getHeight();
+
+        StageTimer binarize = StageTimer.start(listener, PipelineStage.BINARIZE);
+        if (image.getWidth() != width || image.getHeight() != height) {
+            start(image.getWidth(), image.getHeight());
+        }
+        readFrame(image);
+        if (dirtyTileCount > 0) {
+            binarizeDirtyTiles();
+        }
+        binarize.finish(pixels, 0);
+
+        StageTimer label = StageTimer.start(listener, PipelineStage.LABEL);
+        if (dirtyTileCount > 0) {
+            relabel();
+        }
+        for (int group = 1; group < nextLabel; group++) {
+            if (sizes[group] > 0) {
+                groups.add(sizes[group], sumsX[group], sumsY[group]);
+            }
+        }
+        List<Group> result = groups.result();
+        label.finish(pixels, result);
+        return result;
+    }
+
+    /**
+     * @return which neighboring pixels are connected
+     */
+    public Connectivity connectivity() {
+        return connectivity;
+    }
+
+    /**
+     * Forgets the previous frame, so the next frame is processed from scratch.
+     */
+    public synchronized void reset() {
+        width = 0;
+        height = 0;
+    }
+
+    /**
+     * @return how many tiles of the last frame had changed and were processed again
+     */
+    public synchronized int lastDirtyTileCount() {
+        return dirtyTileCount;
+    }
+
+    // Sets up empty state for frames of a new size
+    private void start(int newWidth, int newHeight) {
+        width = newWidth;
+        height = newHeight;
+        tilesX = (width + tileSize - 1) / tileSize;
+        tilesY = (height + tileSize - 1) / tileSize;
+        int pixels = Math.multiplyExact(width, height);
+        colors = new int[pixels];
+        Arrays.fill(colors, -1);
+        white = new byte[pixels];
+        labels = new int[pixels];
+        dirtyTiles = new boolean[tilesX * tilesY];
+
+        Arrays.fill(sizes, 0);
+        nextLabel = 1;
+        freeLabels = new IntStack();
+    }
+
+    // Reads the frame, marking the tiles that differ from the previous frame and storing their colors
+    private void readFrame(BufferedImage image) {
+        Arrays.fill(dirtyTiles, false);
+        dirtyTileCount = 0;
+        int[] row = new int[width];
+        for (int y = 0; y < height; y++) {
+            PixelRows.read(image, 0, y, width, row);
+            int rowStart = y * width;
+            int tileRow = (y / tileSize) * tilesX;
+            for (int tx = 0; tx < tilesX; tx++) {
+                int from = tx * tileSize;
+                int to = Math.min(from + tileSize, width);
+                if (!Arrays.equals(row, from, to, colors, rowStart + from, rowStart + to)) {
+                    System.arraycopy(row, from, colors, rowStart + from, to - from);
+                    if (!dirtyTiles[tileRow + tx]) {
+                        dirtyTiles[tileRow + tx] = true;
+                        dirtyTileCount++;
+                    }
+                }
+            }
+        }
+    }
+
+    // Binarizes the changed tiles, noting their old groups and seeding their white pixels
+    private void binarizeDirtyTiles() {
+        update++;
+        affected.clear();
+        seeds.clear();
+
+        for (int ty = 0; ty < tilesY; ty++) {
+            for (int tx = 0; tx < tilesX; tx++) {
+                if (dirtyTiles[ty * tilesX + tx]) {
+                    clearTile(tx, ty);
+                }
+            }
+        }
+    }
+
+    // Labels again every group in or next to the changed tiles binarizeDirtyTiles just went over
+    private void relabel() {
+        for (int ty = 0; ty < tilesY; ty++) {
+            for (int tx = 0; tx < tilesX; tx++) {
+                if (dirtyTiles[ty * tilesX + tx]) {
+                    collectBorder(tx, ty);
+                }
+            }
+        }
+
+        // Every pixel of a group that touched a changed tile can be reached from a seed, so filling
+        // from the seeds relabels all of them, and nothing else
+        while (!seeds.isEmpty()) {
+            int seed = seeds.pop();
+            if (white[seed] == 1 && !labeledThisUpdate(seed)) {
+                fillGroup(seed);
+            }
+        }
+
+        // The old labels can only be reused once no pixel holds them any more
+        while (!affected.isEmpty()) {
+            int label = affected.pop();
+            sizes[label] = 0;
+            freeLabels.push(label);
+        }
+    }
+
+    // Notes the old groups of a changed tile, then binarizes the tile and seeds its white pixels
+    private void clearTile(int tx, int ty) {
+        int x0 = tx * tileSize;
+        int y0 = ty * tileSize;
+        int x1 = Math.min(x0 + tileSize, width);
+        int y1 = Math.min(y0 + tileSize, height);
+        for (int y = y0; y < y1; y++) {
+            for (int p = y * width + x0, end = y * width + x1; p < end; p++) {
+                markAffected(labels[p]);
+                labels[p] = 0;
+                if (binarizer.isWhite(colors[p])) {
+                    white[p] = 1;
+                    seeds.push(p);
+                } else {
+                    white[p] = 0;
+                }
+            }
+        }
+    }
+
+    // Notes and seeds the white pixels just outside a changed tile, whose groups may join or split.
+    // With eight-connectivity the pixels diagonally off the tile's corners touch it too.
+    private void collectBorder(int tx, int ty) {
+        int x0 = tx * tileSize;
+        int y0 = ty * tileSize;
+        int x1 = Math.min(x0 + tileSize, width);
+        int y1 = Math.min(y0 + tileSize, height);
+        int reach = eightConnected ? 1 : 0;
+        for (int x = x0 - reach; x < x1 + reach; x++) {
+            collectOutside(x, y0 - 1);
+            collectOutside(x, y1);
+        }
+        for (int y = y0; y < y1; y++) {
+            collectOutside(x0 - 1, y);
+            collectOutside(x1, y);
+        }
+    }
+
+    private void collectOutside(int x, int y) {
+        if (x < 0 || y < 0 || x >= width || y >= height) {
+            return;
+        }
+        if (dirtyTiles[(y / tileSize) * tilesX + x / tileSize]) {
+            return;
+        }
+        int p = y * width + x;
+        if (labels[p] != 0) {
+            markAffected(labels[p]);
+            seeds.push(p);
+        }
+    }
+
+    private void markAffected(int label) {
+        if (label != 0 && affectedIn[label] != update) {
+            affectedIn[label] = update;
+            affected.push(label);
+        }
+    }
+
+    private boolean labeledThisUpdate(int p) {
+        return labels[p] != 0 && createdIn[labels[p]] == update;
+    }
+
+    // Gives the group containing seed a new label and totals its size and sums
+    private void fillGroup(int seed) {
+        int label = newLabel();
+        int count = 0;
+        long sumX = 0;
+        long sumY = 0;
+
+        labels[seed] = label;
+        fill.push(seed);
+        while (!fill.isEmpty()) {
+            int p = fill.pop();
+            int x = p % width;
+            int y = p / width;
+            count++;
+            sumX += x;
+            sumY += y;
+
+            if (x > 0) visit(p - 1, label);
+            if (x < width - 1) visit(p + 1, label);
+            if (y > 0) visit(p - width, label);
+            if (y < height - 1) visit(p + width, label);
+            if (eightConnected) {
+                if (y > 0 && x > 0) visit(p - width - 1, label);
+                if (y > 0 && x < width - 1) visit(p - width + 1, label);
+                if (y < height - 1 && x > 0) visit(p + width - 1, label);
+                if (y < height - 1 && x < width - 1) visit(p + width + 1, label);
+            }
+        }
+
+        sizes[label] = count;
+        sumsX[label] = sumX;
+        sumsY[label] = sumY;
+    }
+
+    private void visit(int p, int label) {
+        if (white[p] == 1 && labels[p] != label && !labeledThisUpdate(p)) {
+            labels[p] = label;
+            fill.push(p);
+        }
+    }
+
+    private int newLabel() {
+        int label;
+        if (!freeLabels.isEmpty()) {
+            label = freeLabels.pop();
+        } else {
+            label = nextLabel++;
+            if (label == sizes.length) {
+                int capacity = sizes.length * 2;
+                sizes = Arrays.copyOf(sizes, capacity);
+                sumsX = Arrays.copyOf(sumsX, capacity);
+                sumsY = Arrays.copyOf(sumsY, capacity);
+                createdIn = Arrays.copyOf(createdIn, capacity);
+                affectedIn = Arrays.copyOf(affectedIn, capacity);
+            }
+        }
+        createdIn[label] = update;
+        return label;
+    }
+
+    // A growable stack of ints
+    private static final class IntStack {
+        private int[] values = new int[64];
+        private int size;
+
+        void push(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int pop() {
+            return values[--size];
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void clear() {
+            size = 0;
+        }
+    }
+}
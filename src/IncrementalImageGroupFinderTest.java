@@ -0,0 +1,203 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for IncrementalImageGroupFinder.
+ */
+public class IncrementalImageGroupFinderTest {
+
+    private static final DistanceImageBinarizer BINARIZER =
+            new DistanceImageBinarizer(new EuclideanColorDistance(), 0xFFFFFF, 60);
+
+    private static final ImageGroupFinder FULL = new BinarizingImageGroupFinder(BINARIZER, new ReferenceBinaryGroupFinder());
+
+    // Near white, near black, and a color that is just too far from white
+    private static final int[] COLORS = {0xFFFFFF, 0xF0F0F0, 0x000000, 0x202020, 0xC0C0C0};
+
+    /** Builds a random image from a few near white and near black colors. */
+    private static BufferedImage randomFrame(Random random, int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, COLORS[random.nextInt(COLORS.length)]);
+            }
+        }
+        return image;
+    }
+
+    /** Copies a frame and repaints a few random rectangles, lines and single pixels. */
+    private static BufferedImage nextFrame(Random random, BufferedImage previous) {
+        int width = previous.getWidth();
+        int height = previous.getHeight();
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        image.setData(previous.getData());
+
+        int changes = random.nextInt(4);
+        for (int change = 0; change < changes; change++) {
+            int x0 = random.nextInt(width);
+            int y0 = random.nextInt(height);
+            int color = COLORS[random.nextInt(COLORS.length)];
+            switch (random.nextInt(4)) {
+                case 0 -> image.setRGB(x0, y0, color);
+                case 1 -> {
+                    // A horizontal line, which can join or split groups across many tiles
+                    for (int x = x0; x < width; x++) {
+                        image.setRGB(x, y0, color);
+                    }
+                }
+                case 2 -> {
+                    int x1 = Math.min(width, x0 + 1 + random.nextInt(12));
+                    int y1 = Math.min(height, y0 + 1 + random.nextInt(12));
+                    for (int y = y0; y < y1; y++) {
+                        for (int x = x0; x < x1; x++) {
+                            image.setRGB(x, y, color);
+                        }
+                    }
+                }
+                default -> {
+                    int x1 = Math.min(width, x0 + 1 + random.nextInt(8));
+                    int y1 = Math.min(height, y0 + 1 + random.nextInt(8));
+                    for (int y = y0; y < y1; y++) {
+                        for (int x = x0; x < x1; x++) {
+                            image.setRGB(x, y, COLORS[random.nextInt(COLORS.length)]);
+                        }
+                    }
+                }
+            }
+        }
+        return image;
+    }
+
+    /** Random frame sequences give the same groups as labeling every frame from scratch. */
+    @Test
+    void testMatchesFullRecompute() {
+        Random random = new Random(21);
+        for (int tileSize : new int[] {1, 3, 8, 32}) {
+            IncrementalImageGroupFinder finder = new IncrementalImageGroupFinder(BINARIZER, tileSize);
+            for (int sequence = 0; sequence < 4; sequence++) {
+                BufferedImage frame = randomFrame(random, 10 + random.nextInt(50), 10 + random.nextInt(50));
+                for (int step = 0; step < 40; step++) {
+                    assertEquals(FULL.findConnectedGroups(frame), finder.findConnectedGroups(frame),
+                            "tile " + tileSize + " sequence " + sequence + " step " + step);
+                    frame = nextFrame(random, frame);
+                }
+            }
+        }
+    }
+
+    /** With eight-connectivity, groups that join diagonally across tile edges also match. */
+    @Test
+    void testEightConnectedMatchesFullRecompute() {
+        ImageGroupFinder full = new BinarizingImageGroupFinder(BINARIZER, new ReferenceBinaryGroupFinder(Connectivity.EIGHT));
+        Random random = new Random(25);
+        for (int tileSize : new int[] {1, 4, 16}) {
+            IncrementalImageGroupFinder finder = new IncrementalImageGroupFinder(BINARIZER, tileSize, Connectivity.EIGHT);
+            BufferedImage frame = randomFrame(random, 10 + random.nextInt(50), 10 + random.nextInt(50));
+            for (int step = 0; step < 40; step++) {
+                assertEquals(full.findConnectedGroups(frame), finder.findConnectedGroups(frame),
+                        "tile " + tileSize + " step " + step);
+                frame = nextFrame(random, frame);
+            }
+        }
+    }
+
+    /** Sparse frames with a few large groups that move, grow, join and split also match. */
+    @Test
+    void testMovingBlobs() {
+        Random random = new Random(22);
+        IncrementalImageGroupFinder finder = new IncrementalImageGroupFinder(BINARIZER, 8);
+        int[][] blobs = new int[6][4];
+        for (int[] blob : blobs) {
+            blob[0] = random.nextInt(80);
+            blob[1] = random.nextInt(60);
+            blob[2] = 3 + random.nextInt(15);
+            blob[3] = 3 + random.nextInt(15);
+        }
+
+        for (int step = 0; step < 60; step++) {
+            BufferedImage frame = new BufferedImage(100, 80, BufferedImage.TYPE_INT_RGB);
+            for (int[] blob : blobs) {
+                for (int y = blob[1]; y < Math.min(80, blob[1] + blob[3]); y++) {
+                    for (int x = blob[0]; x < Math.min(100, blob[0] + blob[2]); x++) {
+                        frame.setRGB(x, y, 0xFFFFFF);
+                    }
+                }
+                blob[0] = Math.floorMod(blob[0] + random.nextInt(5) - 2, 100);
+                blob[1] = Math.floorMod(blob[1] + random.nextInt(5) - 2, 80);
+            }
+            assertEquals(FULL.findConnectedGroups(frame), finder.findConnectedGroups(frame), "step " + step);
+        }
+    }
+
+    /** Only changed tiles are processed, and an unchanged frame processes none. */
+    @Test
+    void testDirtyTiles() {
+        IncrementalImageGroupFinder finder = new IncrementalImageGroupFinder(BINARIZER, 10);
+        BufferedImage frame = randomFrame(new Random(23), 40, 30);
+
+        List<Group> first = finder.findConnectedGroups(frame);
+        assertEquals(12, finder.lastDirtyTileCount());
+
+        assertEquals(first, finder.findConnectedGroups(frame));
+        assertEquals(0, finder.lastDirtyTileCount());
+
+        // Two pixels in the same tile and one in another
+        frame.setRGB(11, 12, frame.getRGB(11, 12) ^ 0xFFFFFF);
+        frame.setRGB(19, 19, frame.getRGB(19, 19) ^ 0xFFFFFF);
+        frame.setRGB(39, 29, frame.getRGB(39, 29) ^ 0xFFFFFF);
+        assertEquals(FULL.findConnectedGroups(frame), finder.findConnectedGroups(frame));
+        assertEquals(2, finder.lastDirtyTileCount());
+    }
+
+    /** Queries, a change of frame size and reset all start from the right state. */
+    @Test
+    void testQueryResizeAndReset() {
+        Random random = new Random(24);
+        IncrementalImageGroupFinder finder = new IncrementalImageGroupFinder(BINARIZER);
+        GroupQuery query = new GroupQuery(3, 2);
+
+        BufferedImage small = randomFrame(random, 20, 20);
+        assertEquals(FULL.findConnectedGroups(small, query), finder.findConnectedGroups(small, query));
+
+        BufferedImage large = randomFrame(random, 70, 45);
+        assertEquals(FULL.findConnectedGroups(large), finder.findConnectedGroups(large));
+        assertEquals(6, finder.lastDirtyTileCount());
+
+        finder.reset();
+        assertEquals(FULL.findConnectedGroups(large), finder.findConnectedGroups(large));
+        assertEquals(6, finder.lastDirtyTileCount());
+    }
+
+    /** A listener hears about the binarize and label stages of every frame, changed or not. */
+    @Test
+    void testReportsStagesToListener() {
+        List<StageMetrics> reported = new ArrayList<>();
+        IncrementalImageGroupFinder finder = new IncrementalImageGroupFinder(BINARIZER,
+                IncrementalImageGroupFinder.DEFAULT_TILE_SIZE, Connectivity.FOUR, reported::add);
+        BufferedImage frame = randomFrame(new Random(21), 40, 30);
+
+        List<Group> groups = finder.findConnectedGroups(frame);
+        finder.findConnectedGroups(frame);
+
+        assertEquals(List.of(PipelineStage.BINARIZE, PipelineStage.LABEL, PipelineStage.BINARIZE, PipelineStage.LABEL),
+                reported.stream().map(StageMetrics::stage).toList());
+        assertEquals(1200, reported.get(0).pixels());
+        assertEquals(groups.size(), reported.get(1).groups());
+        assertEquals(groups.size(), reported.get(3).groups());
+    }
+
+    /** Bad arguments are rejected. */
+    @Test
+    void testInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> new IncrementalImageGroupFinder(null));
+        assertThrows(IllegalArgumentException.class, () -> new IncrementalImageGroupFinder(BINARIZER, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> new IncrementalImageGroupFinder(BINARIZER).findConnectedGroups(null));
+    }
+}
@@ -0,0 +1,24 @@
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A JFR event for finding the connected groups of one binary image.
+ */
+@Name("centroidfinder.Label")
+@Label("Label Groups")
+@Description("Finding, filtering and sorting the connected groups of a binary image")
+final class LabelEvent extends PipelineEvent {
+    @Label("Group Count")
+    int groupCount;
+
+    @Label("Largest Group Size")
+    int largestGroupSize;
+
+    @Override
+    void set(long pixels, int groups, int largestGroup) {
+        super.set(pixels, groups, largestGroup);
+        this.groupCount = groups;
+        this.largestGroupSize = largestGroup;
+    }
+}
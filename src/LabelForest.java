@@ -0,0 +1,103 @@
+import java.util.Arrays;
+
+/**
+ * A union-find forest over the labels 1..size(), kept in flat int arrays that grow as labels
+ * are created. Label 0 is reserved for black pixels and is never part of the forest.
+ *
+ * Trees are merged by rank and paths are halved on every find, so long chains of merged labels
+ * stay shallow.
+ */
+final class LabelForest {
+    private int[] parent = new int[256];
+    private int[] rank = new int[256];
+    private int size;
+
+    /**
+     * Creates a new label that is the root of its own tree.
+     *
+     * @return the new label
+     */
+    int newLabel() {
+        size++;
+        if (size == parent.length) {
+            parent = Arrays.copyOf(parent, parent.length * 2);
+            rank = Arrays.copyOf(rank, rank.length * 2);
+        }
+        parent[size] = size;
+        return size;
+    }
+
+    /**
+     * Forgets every label and starts over with the labels 1..count, each the root of its own tree.
+     */
+    void reset(int count) {
+        for (int label = 1; label <= count; label++) {
+            parent[label] = label;
+            rank[label] = 0;
+        }
+        size = count;
+    }
+
+    /**
+     * @return the number of labels created so far, which is also the largest label
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Finds the root label of the tree containing the given label.
+     */
+    int find(int label) {
+        while (parent[label] != label) {
+            parent[label] = parent[parent[label]];
+            label = parent[label];
+        }
+        return label;
+    }
+
+    /**
+     * Joins a pixel's label with the labels of its upper-left and upper-right neighbors, for
+     * eight-connected labeling.
+     *
+     * @param label the label the pixel has so far from its left and upper neighbors, or 0 for none
+     * @param upLeft the label of the upper-left neighbor, or 0 if it is black
+     * @param upRight the label of the upper-right neighbor, or 0 if it is black
+     * @return the pixel's label, or 0 if it still has none and needs a new one
+     */
+    int joinDiagonals(int label, int upLeft, int upRight) {
+        if (upLeft != 0) {
+            if (label == 0) {
+                label = upLeft;
+            } else if (label != upLeft) {
+                union(label, upLeft);
+            }
+        }
+        if (upRight != 0) {
+            if (label == 0) {
+                label = upRight;
+            } else if (label != upRight) {
+                union(label, upRight);
+            }
+        }
+        return label;
+    }
+
+    /**
+     * Merges the trees containing the two labels.
+     */
+    void union(int a, int b) {
+        int rootA = find(a);
+        int rootB = find(b);
+        if (rootA == rootB) return;
+
+        if (rank[rootA] < rank[rootB]) {
+            parent[rootA] = rootB;
+        } else if (rank[rootA] > rank[rootB]) {
+            parent[rootB] = rootA;
+        } else {
+            parent[rootB] = rootA;
+            rank[rootA]++;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+/**
+ * A DistanceImageBinarizer that classifies pixels with a precomputed ColorLookupTable instead of
+ * computing a color distance for every pixel.
+ *
+ * Building the table costs one distance computation per RGB color, so this pays off when the same
+ * target color and threshold are applied to many images. The binarizer is immutable and can be
+ * created once and then shared across images and threads. Its output is exactly the same as a
+ * DistanceImageBinarizer with the same distance finder, target color and threshold.
+ */
+public class LookupTableImageBinarizer extends DistanceImageBinarizer {
+    private final ColorLookupTable table;
+
+    /**
+     * Constructs a LookupTableImageBinarizer, building its lookup table straight away.
+     *
+     * @param distanceFinder an object that computes the distance between two colors; it must not keep state
+     * @param targetColor the reference color as a 24-bit hex RGB integer (0xRRGGBB)
+     * @param threshold the distance threshold used to decide whether a pixel is white or black
+     */
+    public LookupTableImageBinarizer(ColorDistanceFinder distanceFinder, int targetColor, int threshold) {
+        this(distanceFinder, ColorLookupTable.build(distanceFinder, targetColor, threshold));
+    }
+
+    /**
+     * Constructs a LookupTableImageBinarizer around a table that was already built, so that one
+     * table can be shared by several binarizers.
+     *
+     * @param distanceFinder the distance finder the table was built with
+     * @param table the prebuilt lookup table
+     */
+    public LookupTableImageBinarizer(ColorDistanceFinder distanceFinder, ColorLookupTable table) {
+        super(distanceFinder, table.targetColor(), table.threshold());
+        this.table = table;
+    }
+
+    /**
+     * Looks the pixel's color up in the table.
+     *
+     * @param pixelColor the pixel's color as a 24-bit hex RGB integer (0xRRGGBB)
+     * @return true if the pixel is white (1), false if it is black (0)
+     */
+    @Override
+    public boolean isWhite(int pixelColor) {
+        return table.contains(pixelColor);
+    }
+}
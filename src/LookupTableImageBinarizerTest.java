@@ -0,0 +1,80 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for ColorLookupTable and LookupTableImageBinarizer.
+ */
+public class LookupTableImageBinarizerTest {
+
+    private final EuclideanColorDistance euclidean = new EuclideanColorDistance();
+
+    /** Every one of the 2^24 colors must get the same answer as the distance finder. */
+    @Test
+    void testTableMatchesFinderForEveryColor() {
+        ColorLookupTable table = ColorLookupTable.build(euclidean, 0xFFA200, 164);
+        for (int color = 0; color < (1 << 24); color++) {
+            if (table.contains(color) != euclidean.withinThreshold(color, 0xFFA200, 164)) {
+                fail("Mismatch for color " + Integer.toHexString(color));
+            }
+        }
+    }
+
+    /** The table works for any distance finder, not just the Euclidean one. */
+    @Test
+    void testTableWithCustomFinder() {
+        // Only compares the blue channel
+        ColorDistanceFinder blueOnly = (colorA, colorB) -> Math.abs((colorA & 0xFF) - (colorB & 0xFF));
+        ColorLookupTable table = ColorLookupTable.build(blueOnly, 0x000080, 10);
+
+        assertTrue(table.contains(0xFFFF80));
+        assertTrue(table.contains(0x000089));
+        assertFalse(table.contains(0x00008A));
+        assertFalse(table.contains(0x000076));
+    }
+
+    /** Alpha bits passed in are ignored. */
+    @Test
+    void testTableIgnoresAlpha() {
+        ColorLookupTable table = ColorLookupTable.build(euclidean, 0x123456, 5);
+        assertTrue(table.contains(0xFF123456));
+        assertTrue(table.contains(0x00123456));
+    }
+
+    /** The binarizer gives exactly the same binary array as DistanceImageBinarizer. */
+    @Test
+    void testBinarizerMatchesDistanceImageBinarizer() throws IOException {
+        BufferedImage input = ImageIO.read(new File("sampleInput/squares.jpg"));
+        DistanceImageBinarizer expected = new DistanceImageBinarizer(euclidean, 0xFFA200, 164);
+        LookupTableImageBinarizer actual = new LookupTableImageBinarizer(euclidean, 0xFFA200, 164);
+
+        assertArrayEquals(expected.toBinaryArray(input), actual.toBinaryArray(input));
+        assertEquals(expected.toBinaryMask(input), actual.toBinaryMask(input));
+    }
+
+    /** One table can be shared by several binarizers. */
+    @Test
+    void testSharedTable() {
+        ColorLookupTable table = ColorLookupTable.build(euclidean, 0x000000, 50);
+        LookupTableImageBinarizer first = new LookupTableImageBinarizer(euclidean, table);
+        LookupTableImageBinarizer second = new LookupTableImageBinarizer(euclidean, table);
+
+        BufferedImage image = new BufferedImage(2, 1, BufferedImage.TYPE_INT_RGB);
+        image.setRGB(0, 0, 0x101010);
+        image.setRGB(1, 0, 0xFFFFFF);
+        assertArrayEquals(new int[][] {{1, 0}}, first.toBinaryArray(image));
+        assertArrayEquals(new int[][] {{1, 0}}, second.toBinaryArray(image));
+    }
+
+    /** Null finder should throw. */
+    @Test
+    void testNullFinder() {
+        assertThrows(IllegalArgumentException.class, () -> ColorLookupTable.build(null, 0, 10));
+    }
+}
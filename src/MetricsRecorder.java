@@ -0,0 +1,172 @@
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A PipelineListener that keeps running totals and a latency histogram for every stage, and can
+ * print a summary table at the end of a run.
+ *
+ * Each histogram has one bucket per power of two of nanoseconds, so recording a sample is a few
+ * atomic adds with no allocation or locking, and percentiles are reported as the upper bound of
+ * the bucket they fall in (accurate to within a factor of two, and never above the maximum).
+ * The recorder is safe to share between threads.
+ */
+public final class MetricsRecorder implements PipelineListener {
+    private final Map<PipelineStage, StageHistogram> histograms = new EnumMap<>(PipelineStage.class);
+
+    /**
+     * Constructs an empty recorder.
+     */
+    public MetricsRecorder() {
+        for (PipelineStage stage : PipelineStage.values()) {
+            histograms.put(stage, new StageHistogram());
+        }
+    }
+
+    @Override
+    public void stageCompleted(StageMetrics metrics) {
+        histograms.get(metrics.stage()).record(metrics);
+    }
+
+    /**
+     * @return how many times the stage has completed
+     */
+    public long count(PipelineStage stage) {
+        return histograms.get(stage).count.sum();
+    }
+
+    /**
+     * @return the total wall-clock nanoseconds spent in the stage
+     */
+    public long totalNanos(PipelineStage stage) {
+        return histograms.get(stage).totalNanos.sum();
+    }
+
+    /**
+     * @return the longest single run of the stage in nanoseconds, or 0 if it never ran
+     */
+    public long maxNanos(PipelineStage stage) {
+        return histograms.get(stage).maxNanos.get();
+    }
+
+    /**
+     * Estimates a percentile of the stage's run times.
+     *
+     * @param stage the stage
+     * @param percentile the percentile, from 0 to 100
+     * @return an upper bound on the percentile in nanoseconds, or 0 if the stage never ran
+     */
+    public long percentileNanos(PipelineStage stage, double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100");
+        }
+        return histograms.get(stage).percentile(percentile);
+    }
+
+    /**
+     * @return the total number of pixels the stage handled
+     */
+    public long pixels(PipelineStage stage) {
+        return histograms.get(stage).pixels.sum();
+    }
+
+    /**
+     * @return the total number of groups the stage produced or wrote
+     */
+    public long groups(PipelineStage stage) {
+        return histograms.get(stage).groups.sum();
+    }
+
+    /**
+     * @return the total bytes allocated by the stage, or -1 if allocation could not be measured
+     */
+    public long allocatedBytes(PipelineStage stage) {
+        StageHistogram histogram = histograms.get(stage);
+        return histogram.allocationUnknown.sum() > 0 ? -1 : histogram.allocatedBytes.sum();
+    }
+
+    /**
+     * Formats one line per stage that has run, with its count, total and mean time, median,
+     * 99th percentile and maximum time, pixels, groups and allocated bytes.
+     *
+     * @return the summary table
+     */
+    public String summary() {
+        StringBuilder table = new StringBuilder(String.format(Locale.ROOT,
+                "%-12s %6s %10s %9s %9s %9s %9s %12s %8s %12s%n",
+                "stage", "count", "total ms", "mean ms", "p50 ms", "p99 ms", "max ms", "pixels", "groups", "alloc MB"));
+        for (PipelineStage stage : PipelineStage.values()) {
+            long count = count(stage);
+            if (count == 0) {
+                continue;
+            }
+            long bytes = allocatedBytes(stage);
+            table.append(String.format(Locale.ROOT,
+                    "%-12s %6d %10.2f %9.3f %9.3f %9.3f %9.3f %12d %8d %12s%n",
+                    stage, count, totalNanos(stage) / 1e6, totalNanos(stage) / 1e6 / count,
+                    percentileNanos(stage, 50) / 1e6, percentileNanos(stage, 99) / 1e6, maxNanos(stage) / 1e6,
+                    pixels(stage), groups(stage),
+                    bytes < 0 ? "n/a" : String.format(Locale.ROOT, "%.1f", bytes / (1024.0 * 1024.0))));
+        }
+        return table.toString();
+    }
+
+    // The totals and power-of-two latency buckets of one stage
+    private static final class StageHistogram {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAdder pixels = new LongAdder();
+        private final LongAdder groups = new LongAdder();
+        private final LongAdder allocatedBytes = new LongAdder();
+        private final LongAdder allocationUnknown = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        // Bucket i counts run times in [2^i, 2^(i+1)) nanoseconds; bucket 0 also holds 0
+        private final AtomicLongArray buckets = new AtomicLongArray(64);
+
+        void record(StageMetrics metrics) {
+            long nanos = Math.max(0, metrics.nanos());
+            count.increment();
+            totalNanos.add(nanos);
+            pixels.add(metrics.pixels());
+            groups.add(metrics.groups());
+            if (metrics.allocatedBytes() < 0) {
+                allocationUnknown.increment();
+            } else {
+                allocatedBytes.add(metrics.allocatedBytes());
+            }
+            maxNanos.accumulateAndGet(nanos, Math::max);
+            buckets.incrementAndGet(bucket(nanos));
+        }
+
+        long percentile(double percentile) {
+            long total = 0;
+            long[] counts = new long[buckets.length()];
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = buckets.get(i);
+                total += counts[i];
+            }
+            if (total == 0) {
+                return 0;
+            }
+
+            // The rank of the sample at this percentile, counting from 1
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    long upper = i >= 62 ? Long.MAX_VALUE : (1L << (i + 1)) - 1;
+                    return Math.min(upper, maxNanos.get());
+                }
+            }
+            return maxNanos.get();
+        }
+
+        private static int bucket(long nanos) {
+            return nanos == 0 ? 0 : 63 - Long.numberOfLeadingZeros(nanos);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for MetricsRecorder and StageTimer.
+ */
+public class MetricsRecorderTest {
+
+    /** Totals and the maximum are kept per stage. */
+    @Test
+    void testTotals() {
+        MetricsRecorder recorder = new MetricsRecorder();
+        recorder.stageCompleted(new StageMetrics(PipelineStage.LABEL, 1_000, 100, 3, 64));
+        recorder.stageCompleted(new StageMetrics(PipelineStage.LABEL, 5_000, 100, 4, 32));
+        recorder.stageCompleted(new StageMetrics(PipelineStage.DECODE, 7_000, 100, 0, -1));
+
+        assertEquals(2, recorder.count(PipelineStage.LABEL));
+        assertEquals(6_000, recorder.totalNanos(PipelineStage.LABEL));
+        assertEquals(5_000, recorder.maxNanos(PipelineStage.LABEL));
+        assertEquals(200, recorder.pixels(PipelineStage.LABEL));
+        assertEquals(7, recorder.groups(PipelineStage.LABEL));
+        assertEquals(96, recorder.allocatedBytes(PipelineStage.LABEL));
+        assertEquals(-1, recorder.allocatedBytes(PipelineStage.DECODE));
+        assertEquals(0, recorder.count(PipelineStage.WRITE_GROUPS));
+        assertEquals(0, recorder.percentileNanos(PipelineStage.WRITE_GROUPS, 50));
+    }
+
+    /** Percentiles are the upper bound of their power-of-two bucket, capped at the maximum. */
+    @Test
+    void testPercentiles() {
+        MetricsRecorder recorder = new MetricsRecorder();
+        // 90 runs of 1000 ns (bucket [512, 1024)) and 10 runs of 100000 ns
+        for (int i = 0; i < 90; i++) {
+            recorder.stageCompleted(new StageMetrics(PipelineStage.BINARIZE, 1_000, 0, 0, 0));
+        }
+        for (int i = 0; i < 10; i++) {
+            recorder.stageCompleted(new StageMetrics(PipelineStage.BINARIZE, 100_000, 0, 0, 0));
+        }
+
+        assertEquals(1_023, recorder.percentileNanos(PipelineStage.BINARIZE, 50));
+        assertEquals(1_023, recorder.percentileNanos(PipelineStage.BINARIZE, 90));
+        assertEquals(100_000, recorder.percentileNanos(PipelineStage.BINARIZE, 99));
+        assertEquals(100_000, recorder.percentileNanos(PipelineStage.BINARIZE, 100));
+        assertThrows(IllegalArgumentException.class, () -> recorder.percentileNanos(PipelineStage.BINARIZE, 101));
+    }
+
+    /** The summary lists only the stages that ran. */
+    @Test
+    void testSummary() {
+        MetricsRecorder recorder = new MetricsRecorder();
+        recorder.stageCompleted(new StageMetrics(PipelineStage.WRITE_GROUPS, 2_000_000, 0, 5, 1024 * 1024));
+        String summary = recorder.summary();
+
+        assertTrue(summary.startsWith("stage"));
+        assertTrue(summary.contains("WRITE_GROUPS"));
+        assertFalse(summary.contains("DECODE"));
+        assertEquals(2, summary.lines().count());
+    }
+
+    /** Samples recorded from several threads are all counted. */
+    @Test
+    void testConcurrentRecording() throws InterruptedException {
+        MetricsRecorder recorder = new MetricsRecorder();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    recorder.stageCompleted(new StageMetrics(PipelineStage.LABEL, i, 1, 1, 0));
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(40_000, recorder.count(PipelineStage.LABEL));
+        assertEquals(40_000, recorder.pixels(PipelineStage.LABEL));
+        assertEquals(9_999, recorder.maxNanos(PipelineStage.LABEL));
+    }
+
+    /** A real run through an instrumented finder reports both stages with their counts. */
+    @Test
+    void testInstrumentedFinder() {
+        BufferedImage image = new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB);
+        image.setRGB(2, 2, 0xFFFFFF);
+        image.setRGB(7, 7, 0xFFFFFF);
+        MetricsRecorder recorder = new MetricsRecorder();
+        ImageGroupFinder finder = new BinarizingImageGroupFinder(
+                new DistanceImageBinarizer(new EuclideanColorDistance(), 0xFFFFFF, 10),
+                new ScanlineBinaryGroupFinder(), recorder);
+
+        assertEquals(2, finder.findConnectedGroups(image, new GroupQuery(0, 5)).size());
+        assertEquals(1, recorder.count(PipelineStage.BINARIZE));
+        assertEquals(100, recorder.pixels(PipelineStage.BINARIZE));
+        assertEquals(2, recorder.groups(PipelineStage.LABEL));
+        assertTrue(recorder.allocatedBytes(PipelineStage.BINARIZE) != 0);
+    }
+
+    /** Without a listener the timer reports nothing. */
+    @Test
+    void testTimerWithoutListener() {
+        StageTimer timer = StageTimer.start(null, PipelineStage.DECODE);
+        assertSame(timer, StageTimer.start(null, PipelineStage.LABEL));
+        timer.finish(10, 1);
+    }
+}
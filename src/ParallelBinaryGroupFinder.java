@@ -0,0 +1,196 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * A BinaryGroupFinder that labels horizontal strips of the image on several threads at once.
+ *
+ * The image is split into strips of whole rows and each strip is labeled independently on a
+ * ForkJoinPool with a RowLabeler. Groups that cross a strip boundary show up as separate labels
+ * in the strips above and below the seam, so the labels of the last row of each strip and the
+ * first row of the next are then merged in a union-find forest. Finally the size and coordinate
+ * sums of all labels in a merged group are added together to give the group's size and centroid.
+ *
+ * Images with fewer pixels than the sequential cutoff are not worth splitting and are handled
+ * on the calling thread by a ScanlineBinaryGroupFinder instead.
+ *
+ * With eight-connectivity, a pixel below a seam is also joined to the pixels diagonally above it.
+ * The groups found are exactly the same as the ones found by DfsBinaryGroupFinder with the same
+ * connectivity.
+ */
+public class ParallelBinaryGroupFinder implements BinaryGroupFinder {
+    /** Images with fewer pixels than this are labeled sequentially by default. */
+    public static final int DEFAULT_SEQUENTIAL_CUTOFF = 512 * 512;
+
+    // Strips per thread, so that a strip full of large groups does not hold up the others
+    private static final int STRIPS_PER_THREAD = 4;
+
+    private final ForkJoinPool pool;
+    private final int sequentialCutoff;
+    private final Connectivity connectivity;
+    private final BinaryGroupFinder sequentialFinder;
+
+    /**
+     * Constructs a ParallelBinaryGroupFinder that runs on the common ForkJoinPool.
+     */
+    public ParallelBinaryGroupFinder() {
+        this(ForkJoinPool.commonPool(), DEFAULT_SEQUENTIAL_CUTOFF);
+    }
+
+    /**
+     * Constructs a ParallelBinaryGroupFinder that runs on the given pool. The pool still belongs to
+     * the caller, who shuts it down once the finder is no longer used.
+     *
+     * @param pool the pool to label strips on
+     * @param sequentialCutoff images with fewer pixels than this are labeled on the calling thread
+     */
+    public ParallelBinaryGroupFinder(ForkJoinPool pool, int sequentialCutoff) {
+        this(pool, sequentialCutoff, Connectivity.FOUR);
+    }
+
+    /**
+     * Constructs a ParallelBinaryGroupFinder with the given connectivity that runs on the given pool.
+     *
+     * @param pool the pool to label strips on
+     * @param sequentialCutoff images with fewer pixels than this are labeled on the calling thread
+     * @param connectivity which neighboring pixels are connected
+     */
+    public ParallelBinaryGroupFinder(ForkJoinPool pool, int sequentialCutoff, Connectivity connectivity) {
+        if (pool == null) {
+            throw new IllegalArgumentException("Pool cannot be null");
+        }
+        if (sequentialCutoff < 0) {
+            throw new IllegalArgumentException("Sequential cutoff cannot be negative");
+        }
+        if (connectivity == null) {
+            throw new IllegalArgumentException("Connectivity cannot be null");
+        }
+        this.pool = pool;
+        this.sequentialCutoff = sequentialCutoff;
+        this.connectivity = connectivity;
+        this.sequentialFinder = new ScanlineBinaryGroupFinder(connectivity);
+    }
+
+    /**
+     * Finds connected pixel groups of 1s in a binary image, connected vertically and horizontally,
+     * and diagonally too with eight-connectivity. See BinaryGroupFinder for the full contract.
+     *
+     * @param image a rectangular 2D array containing only 1s and 0s
+     * @return the found groups of connected pixels in descending order
+     */
+    @Override
+    public List<Group> findConnectedGroups(int[][] image) {
+        return findConnectedGroups(image, GroupQuery.ALL);
+    }
+
+    /**
+     * Finds the connected groups the query asks for.
+     *
+     * @param image a rectangular 2D array containing only 1s and 0s
+     * @param query which groups to keep
+     * @return the kept groups in descending order
+     */
+    @Override
+    public List<Group> findConnectedGroups(int[][] image, GroupQuery query) {
+        if (!GroupFinderSupport.validate(image)) {
+            return new ArrayList<>();
+        }
+        GroupCollector groups = new GroupCollector(query);
+
+        int rows = image.length;
+        int cols = image[0].length;
+        int stripCount = Math.min(rows, pool.getParallelism() * STRIPS_PER_THREAD);
+        if ((long) rows * cols < sequentialCutoff || stripCount < 2) {
+            return sequentialFinder.findConnectedGroups(image, query);
+        }
+
+        RowLabeler[] strips = labelStrips(image, stripCount);
+
+        // Give every strip its own range of labels in one shared forest
+        int[] offsets = new int[stripCount];
+        LabelForest merged = new LabelForest();
+        for (int s = 0; s < stripCount; s++) {
+            offsets[s] = merged.size();
+            for (int label = 1; label <= strips[s].labelCount(); label++) {
+                merged.newLabel();
+            }
+        }
+
+        // Join the groups that touch across each seam
+        for (int s = 0; s + 1 < stripCount; s++) {
+            RowLabeler upper = strips[s];
+            RowLabeler lower = strips[s + 1];
+            int[] above = upper.lastRowLabels();
+            int[] below = lower.firstRowLabels();
+            for (int x = 0; x < cols; x++) {
+                if (below[x] == 0) continue;
+
+                int label = offsets[s + 1] + lower.root(below[x]);
+                if (above[x] != 0) {
+                    merged.union(offsets[s] + upper.root(above[x]), label);
+                }
+                if (connectivity == Connectivity.EIGHT) {
+                    if (x > 0 && above[x - 1] != 0) {
+                        merged.union(offsets[s] + upper.root(above[x - 1]), label);
+                    }
+                    if (x < cols - 1 && above[x + 1] != 0) {
+                        merged.union(offsets[s] + upper.root(above[x + 1]), label);
+                    }
+                }
+            }
+        }
+
+        // Add up the sums of every strip's groups into their merged group
+        int total = merged.size();
+        int[] size = new int[total + 1];
+        long[] sumX = new long[total + 1];
+        long[] sumY = new long[total + 1];
+        for (int s = 0; s < stripCount; s++) {
+            RowLabeler strip = strips[s];
+            for (int label = 1; label <= strip.labelCount(); label++) {
+                if (strip.root(label) != label) continue;
+
+                int root = merged.find(offsets[s] + label);
+                size[root] += strip.size(label);
+                sumX[root] += strip.sumX(label);
+                sumY[root] += strip.sumY(label);
+            }
+        }
+
+        for (int label = 1; label <= total; label++) {
+            if (size[label] > 0 && merged.find(label) == label) {
+                groups.add(size[label], sumX[label], sumY[label]);
+            }
+        }
+
+        return groups.result();
+    }
+
+    @Override
+    public Connectivity connectivity() {
+        return connectivity;
+    }
+
+    // Labels each strip on the pool and waits for all of them to finish
+    private RowLabeler[] labelStrips(int[][] image, int stripCount) {
+        int rows = image.length;
+        int cols = image[0].length;
+
+        List<Callable<RowLabeler>> tasks = new ArrayList<>();
+        for (int s = 0; s < stripCount; s++) {
+            int start = (int) ((long) rows * s / stripCount);
+            int end = (int) ((long) rows * (s + 1) / stripCount);
+            tasks.add(() -> {
+                RowLabeler labeler = new RowLabeler(cols, start, connectivity);
+                for (int y = start; y < end; y++) {
+                    labeler.addRow(image[y]);
+                }
+                labeler.finish();
+                return labeler;
+            });
+        }
+
+        return Tasks.runAll(pool, tasks).toArray(new RowLabeler[0]);
+    }
+}
@@ -0,0 +1,139 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for ParallelBinaryGroupFinder, checked against the reference DFS.
+ */
+public class ParallelBinaryGroupFinderTest {
+
+    private final BinaryGroupFinder reference = new ReferenceBinaryGroupFinder();
+    private ForkJoinPool pool;
+    private ParallelBinaryGroupFinder finder;
+
+    @BeforeEach
+    void setup() {
+        pool = new ForkJoinPool(4);
+        // A cutoff of 0 forces the strip labeling even for tiny images
+        finder = new ParallelBinaryGroupFinder(pool, 0);
+    }
+
+    @AfterEach
+    void teardown() {
+        pool.shutdown();
+    }
+
+    /** Random masks of many shapes and densities should match the DFS output exactly. */
+    @Test
+    void testMatchesDfsOnRandomMasks() {
+        Random random = new Random(3);
+        double[] densities = {0.05, 0.3, 0.5, 0.6, 0.9, 1.0};
+        for (int trial = 0; trial < 60; trial++) {
+            int width = 1 + random.nextInt(80);
+            int height = 1 + random.nextInt(80);
+            double density = densities[trial % densities.length];
+            int[][] image = TestImages.randomMask(random, width, height, density);
+
+            assertEquals(reference.findConnectedGroups(image), finder.findConnectedGroups(image),
+                    "Mismatch on " + width + "x" + height + " mask with density " + density);
+        }
+    }
+
+    /** A single column crosses every seam and must come back as one group. */
+    @Test
+    void testGroupSpanningEverySeam() {
+        int[][] image = new int[40][3];
+        for (int y = 0; y < 40; y++) {
+            image[y][1] = 1;
+        }
+        assertEquals(List.of(new Group(40, new Coordinate(1, 19))), finder.findConnectedGroups(image));
+    }
+
+    /** With eight-connectivity, groups joined only diagonally across a seam are merged. */
+    @Test
+    void testEightConnectedAcrossSeams() {
+        ParallelBinaryGroupFinder eight = new ParallelBinaryGroupFinder(pool, 0, Connectivity.EIGHT);
+        BinaryGroupFinder eightReference = new ReferenceBinaryGroupFinder(Connectivity.EIGHT);
+
+        // Two diagonals, each crossing every seam only at a corner
+        int[][] diagonals = new int[40][40];
+        for (int y = 0; y < 40; y++) {
+            diagonals[y][y] = 1;
+            diagonals[y][39 - y] = 1;
+        }
+        assertEquals(List.of(new Group(80, new Coordinate(19, 19))), eight.findConnectedGroups(diagonals));
+        // The four middle pixels form a 2x2 block, so four-connectivity finds 77 groups
+        assertEquals(77, finder.findConnectedGroups(diagonals).size());
+
+        Random random = new Random(26);
+        for (int trial = 0; trial < 30; trial++) {
+            int[][] image = TestImages.randomMask(random, 1 + random.nextInt(60), 1 + random.nextInt(60), 0.15 + trial % 4 * 0.1);
+            assertEquals(eightReference.findConnectedGroups(image), eight.findConnectedGroups(image));
+        }
+
+        ParallelBinaryGroupFinder sequential = new ParallelBinaryGroupFinder(pool, 1_000_000, Connectivity.EIGHT);
+        assertEquals(eight.findConnectedGroups(diagonals), sequential.findConnectedGroups(diagonals));
+    }
+
+    /** A U shape whose arms only meet inside a later strip must still be merged. */
+    @Test
+    void testGroupJoinedBelowSeveralSeams() {
+        int[][] image = new int[32][5];
+        for (int y = 0; y < 32; y++) {
+            image[y][0] = 1;
+            image[y][4] = 1;
+        }
+        for (int x = 0; x < 5; x++) {
+            image[31][x] = 1;
+        }
+        List<Group> groups = finder.findConnectedGroups(image);
+        assertEquals(1, groups.size());
+        assertEquals(reference.findConnectedGroups(image), groups);
+    }
+
+    /** The sample image should give the same groups as DFS. */
+    @Test
+    void testMatchesDfsOnSampleImage() throws IOException {
+        BufferedImage input = ImageIO.read(new File("sampleInput/squares.jpg"));
+        ImageBinarizer binarizer = new DistanceImageBinarizer(new EuclideanColorDistance(), 0xFFA200, 164);
+        int[][] image = binarizer.toBinaryArray(input);
+
+        assertEquals(reference.findConnectedGroups(image), finder.findConnectedGroups(image));
+    }
+
+    /** Images below the cutoff are handled sequentially and still give the same result. */
+    @Test
+    void testSequentialFallback() {
+        ParallelBinaryGroupFinder sequential = new ParallelBinaryGroupFinder(pool, 1_000_000);
+        int[][] image = TestImages.randomMask(new Random(11), 50, 50, 0.5);
+        assertEquals(reference.findConnectedGroups(image), sequential.findConnectedGroups(image));
+    }
+
+    /** Null image should throw a NullPointerException. */
+    @Test
+    void testNullImage() {
+        assertThrows(NullPointerException.class, () -> finder.findConnectedGroups(null));
+    }
+
+    /** Non-rectangular array should throw IllegalArgumentException. */
+    @Test
+    void testNonRectangularArray() {
+        int[][] image = {
+                {1, 0, 1},
+                {1, 0},
+                {1, 0, 1}
+        };
+        assertThrows(IllegalArgumentException.class, () -> finder.findConnectedGroups(image));
+    }
+}
@@ -0,0 +1,155 @@
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * An ImageBinarizer that splits the image into bands of whole rows and binarizes the bands on
+ * several threads at once, using another ImageBinarizer for the actual work.
+ *
+ * Each band is a sub-image that shares the original image's pixels, so nothing is copied before
+ * binarizing. The rows each band produces are put into the result at the band's position, so the
+ * output is exactly the same as the wrapped binarizer's no matter how the threads are scheduled.
+ *
+ * Images with fewer pixels than the sequential cutoff are binarized on the calling thread, where
+ * splitting them would cost more than it saves. The wrapped binarizer is called from several
+ * threads at once, so it must not keep any state between calls (DistanceImageBinarizer and its
+ * subclasses do not).
+ */
+public class ParallelImageBinarizer implements ImageBinarizer {
+    /** Images with fewer pixels than this are binarized sequentially by default. */
+    public static final int DEFAULT_SEQUENTIAL_CUTOFF = 512 * 512;
+
+    // Bands per thread, so that one slow band does not hold up the others
+    private static final int BANDS_PER_THREAD = 4;
+
+    private final ImageBinarizer binarizer;
+    private final ForkJoinPool pool;
+    private final int sequentialCutoff;
+
+    /**
+     * Constructs a ParallelImageBinarizer that runs on the common ForkJoinPool.
+     *
+     * @param binarizer the binarizer to run on each band
+     */
+    public ParallelImageBinarizer(ImageBinarizer binarizer) {
+        this(binarizer, ForkJoinPool.commonPool(), DEFAULT_SEQUENTIAL_CUTOFF);
+    }
+
+    /**
+     * Constructs a ParallelImageBinarizer that runs on the given pool. The pool still belongs to
+     * the caller, who shuts it down once the binarizer is no longer used.
+     *
+     * @param binarizer the binarizer to run on each band
+     * @param pool the pool to binarize bands on
+     * @param sequentialCutoff images with fewer pixels than this are binarized on the calling thread
+     */
+    public ParallelImageBinarizer(ImageBinarizer binarizer, ForkJoinPool pool, int sequentialCutoff) {
+        if (binarizer == null) {
+            throw new IllegalArgumentException("Binarizer cannot be null");
+        }
+        if (pool == null) {
+            throw new IllegalArgumentException("Pool cannot be null");
+        }
+        if (sequentialCutoff < 0) {
+            throw new IllegalArgumentException("Sequential cutoff cannot be negative");
+        }
+        this.binarizer = binarizer;
+        this.pool = pool;
+        this.sequentialCutoff = sequentialCutoff;
+    }
+
+    /**
+     * Converts the given BufferedImage into a binary 2D array, binarizing bands of rows in parallel.
+     *
+     * @param image the input BufferedImage to convert
+     * @return a 2D array of integers where 1 represents white and 0 represents black
+     */
+    @Override
+    public int[][] toBinaryArray(BufferedImage image) {
+        int bandCount = bandCount(image);
+        if (bandCount < 2) {
+            return binarizer.toBinaryArray(image);
+        }
+
+        int height = image.getHeight();
+        List<Callable<int[][]>> tasks = new ArrayList<>();
+        for (BufferedImage band : bands(image, bandCount)) {
+            tasks.add(() -> binarizer.toBinaryArray(band));
+        }
+
+        // The band arrays' rows become the rows of the result, so nothing is copied
+        int[][] binaryArray = new int[height][];
+        int y = 0;
+        for (int[][] band : Tasks.runAll(pool, tasks)) {
+            for (int[] row : band) {
+                binaryArray[y++] = row;
+            }
+        }
+        return binaryArray;
+    }
+
+    /**
+     * Converts the given BufferedImage into a BinaryMask, binarizing bands of rows in parallel.
+     *
+     * @param image the input BufferedImage to convert
+     * @return a BinaryMask with the same pixels as toBinaryArray would return
+     */
+    @Override
+    public BinaryMask toBinaryMask(BufferedImage image) {
+        int bandCount = bandCount(image);
+        if (bandCount < 2) {
+            return binarizer.toBinaryMask(image);
+        }
+
+        List<BufferedImage> bands = bands(image, bandCount);
+        List<Callable<BinaryMask>> tasks = new ArrayList<>();
+        for (BufferedImage band : bands) {
+            tasks.add(() -> binarizer.toBinaryMask(band));
+        }
+
+        BinaryMask mask = new BinaryMask(image.getWidth(), image.getHeight());
+        int y = 0;
+        for (BinaryMask band : Tasks.runAll(pool, tasks)) {
+            mask.copyRowsFrom(y, band);
+            y += band.height();
+        }
+        return mask;
+    }
+
+    /**
+     * Converts a binary 2D array into a BufferedImage using the wrapped binarizer.
+     *
+     * @param image a 2D binary array where 1 represents white and 0 represents black
+     * @return a BufferedImage representation of the binary array
+     */
+    @Override
+    public BufferedImage toBufferedImage(int[][] image) {
+        return binarizer.toBufferedImage(image);
+    }
+
+    // How many bands to split the image into; fewer than 2 means binarize it sequentially
+    private int bandCount(BufferedImage image) {
+        if (image == null) {
+            throw new IllegalArgumentException("Image cant be null");
+        }
+        if ((long) image.getWidth() * image.getHeight() < sequentialCutoff) {
+            return 1;
+        }
+        return Math.min(image.getHeight(), pool.getParallelism() * BANDS_PER_THREAD);
+    }
+
+    // Splits the image into bandCount sub-images of whole rows, top to bottom
+    private static List<BufferedImage> bands(BufferedImage image, int bandCount) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        List<BufferedImage> bands = new ArrayList<>();
+        for (int b = 0; b < bandCount; b++) {
+            int start = (int) ((long) height * b / bandCount);
+            int end = (int) ((long) height * (b + 1) / bandCount);
+            bands.add(image.getSubimage(0, start, width, end - start));
+        }
+        return bands;
+    }
+}
@@ -0,0 +1,106 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for ParallelImageBinarizer, checked against the binarizer it wraps.
+ */
+public class ParallelImageBinarizerTest {
+
+    private final DistanceImageBinarizer sequential =
+            new DistanceImageBinarizer(new EuclideanColorDistance(), 0x808080, 150);
+    private ForkJoinPool pool;
+    private ParallelImageBinarizer binarizer;
+
+    @BeforeEach
+    void setup() {
+        pool = new ForkJoinPool(3);
+        // A cutoff of 0 forces bands even for tiny images
+        binarizer = new ParallelImageBinarizer(sequential, pool, 0);
+    }
+
+    @AfterEach
+    void teardown() {
+        pool.shutdown();
+    }
+
+    /** Random images, including ones with fewer rows than bands, give the same output. */
+    @Test
+    void testMatchesSequentialBinarizer() {
+        Random random = new Random(31);
+        int[] types = {BufferedImage.TYPE_INT_RGB, BufferedImage.TYPE_3BYTE_BGR, BufferedImage.TYPE_INT_ARGB_PRE};
+        for (int trial = 0; trial < 15; trial++) {
+            int width = 1 + random.nextInt(90);
+            int height = 1 + random.nextInt(40);
+            BufferedImage image = TestImages.randomImage(random, width, height, types[trial % types.length]);
+
+            assertArrayEquals(sequential.toBinaryArray(image), binarizer.toBinaryArray(image));
+            assertEquals(sequential.toBinaryMask(image), binarizer.toBinaryMask(image));
+        }
+    }
+
+    /** The sample image gives the same output. */
+    @Test
+    void testMatchesOnSampleImage() throws IOException {
+        BufferedImage input = ImageIO.read(new File("sampleInput/squares.jpg"));
+        assertArrayEquals(sequential.toBinaryArray(input), binarizer.toBinaryArray(input));
+        assertEquals(sequential.toBinaryMask(input), binarizer.toBinaryMask(input));
+    }
+
+    /** Images below the cutoff go straight to the wrapped binarizer. */
+    @Test
+    void testSequentialBelowCutoff() {
+        CountingBinarizer counting = new CountingBinarizer(sequential);
+        ParallelImageBinarizer parallel = new ParallelImageBinarizer(counting, pool, 10_000);
+
+        parallel.toBinaryArray(new BufferedImage(50, 50, BufferedImage.TYPE_INT_RGB));
+        assertEquals(1, counting.calls);
+
+        parallel.toBinaryArray(new BufferedImage(200, 100, BufferedImage.TYPE_INT_RGB));
+        assertEquals(1 + 3 * 4, counting.calls, "One call per band above the cutoff");
+    }
+
+    /** Null image should throw. */
+    @Test
+    void testNullImage() {
+        assertThrows(IllegalArgumentException.class, () -> binarizer.toBinaryArray(null));
+        assertThrows(IllegalArgumentException.class, () -> binarizer.toBinaryMask(null));
+    }
+
+    /** Null binarizer should throw. */
+    @Test
+    void testNullBinarizer() {
+        assertThrows(IllegalArgumentException.class, () -> new ParallelImageBinarizer(null));
+    }
+
+    // Counts calls to toBinaryArray, which may come from several threads
+    private static class CountingBinarizer implements ImageBinarizer {
+        private final ImageBinarizer binarizer;
+        int calls;
+
+        CountingBinarizer(ImageBinarizer binarizer) {
+            this.binarizer = binarizer;
+        }
+
+        @Override
+        public synchronized int[][] toBinaryArray(BufferedImage image) {
+            calls++;
+            return binarizer.toBinaryArray(image);
+        }
+
+        @Override
+        public BufferedImage toBufferedImage(int[][] image) {
+            return binarizer.toBufferedImage(image);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * The common part of the Java Flight Recorder events emitted for each pipeline stage, so slow
+ * frames show up on the same timeline as GC pauses and I/O.
+ *
+ * Events are created and committed by StageTimer, and only while a recording enables their type;
+ * otherwise StageTimer just asks a shared event of each type whether it is enabled.
+ */
+@Category("Centroid Finder")
+@StackTrace(false)
+abstract class PipelineEvent extends jdk.jfr.Event {
+    @Label("Pixels")
+    long pixels;
+
+    /**
+     * Fills in the event's fields before it is committed.
+     *
+     * @param pixels the number of pixels the stage handled
+     * @param groups the number of groups the stage produced or wrote
+     * @param largestGroup the size of the largest of those groups, or 0 if there are none
+     */
+    void set(long pixels, int groups, int largestGroup) {
+        this.pixels = pixels;
+    }
+}
@@ -0,0 +1,102 @@
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.List;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for the Java Flight Recorder events emitted by StageTimer.
+ */
+public class PipelineEventTest {
+
+    /** Builds a 10x10 black image with a 2x2 white square and a single white pixel. */
+    private static BufferedImage twoGroups() {
+        BufferedImage image = new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB);
+        image.setRGB(1, 1, 0xFFFFFF);
+        image.setRGB(2, 1, 0xFFFFFF);
+        image.setRGB(1, 2, 0xFFFFFF);
+        image.setRGB(2, 2, 0xFFFFFF);
+        image.setRGB(7, 7, 0xFFFFFF);
+        return image;
+    }
+
+    /** A recording gets binarize and label events with the group count and largest size. */
+    @Test
+    void testLabelAndBinarizeEvents(@TempDir Path dir) throws IOException {
+        ImageGroupFinder finder = new BinarizingImageGroupFinder(
+                new DistanceImageBinarizer(new EuclideanColorDistance(), 0xFFFFFF, 10), new ScanlineBinaryGroupFinder());
+        Path file = dir.resolve("events.jfr");
+
+        // Runs once before the recording starts, which must not emit anything
+        finder.findConnectedGroups(twoGroups());
+        try (Recording recording = new Recording()) {
+            recording.enable("centroidfinder.Binarize");
+            recording.enable("centroidfinder.Label");
+            recording.start();
+            finder.findConnectedGroups(twoGroups());
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        RecordedEvent binarize = only(events, "centroidfinder.Binarize");
+        assertEquals(100, binarize.getLong("pixels"));
+
+        RecordedEvent label = only(events, "centroidfinder.Label");
+        assertEquals(2, label.getInt("groupCount"));
+        assertEquals(4, label.getInt("largestGroupSize"));
+        assertFalse(label.getDuration().isNegative());
+    }
+
+    /** Without a listener or an enabled recording no timer is created. */
+    @Test
+    void testDisabledTimerIsShared() {
+        assertSame(StageTimer.start(null, PipelineStage.LABEL), StageTimer.start(null, PipelineStage.WRITE_IMAGE));
+    }
+
+    /** Timing stages with no listener and no recording allocates nothing. */
+    @Test
+    void testDisabledTimerAllocatesNothing() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+        PipelineStage[] stages = PipelineStage.values();
+        for (int i = 0; i < 10_000; i++) {
+            StageTimer.start(null, stages[i % stages.length]).finish(0, 0);
+        }
+
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < 100_000; i++) {
+            StageTimer.start(null, stages[i % stages.length]).finish(0, 0);
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+        // An event per call would be megabytes; leave room for the allocation counter itself
+        assertTrue(allocated < 10_000, allocated + " bytes");
+    }
+
+    /** Every stage has an event type. */
+    @Test
+    void testEveryStageHasEvent() {
+        for (PipelineStage stage : PipelineStage.values()) {
+            assertNotNull(StageTimer.newEvent(stage));
+        }
+        assertEquals("image", ((WriteEvent) StageTimer.newEvent(PipelineStage.WRITE_IMAGE)).output);
+    }
+
+    private static RecordedEvent only(List<RecordedEvent> events, String name) {
+        List<RecordedEvent> matching = events.stream()
+                .filter(event -> event.getEventType().getName().equals(name))
+                .toList();
+        assertEquals(1, matching.size(), name);
+        return matching.get(0);
+    }
+}
@@ -0,0 +1,19 @@
+/**
+ * Receives the metrics of each pipeline stage as it completes.
+ *
+ * Stages can complete on several threads at once, for example when a binarized image is written
+ * in the background, so implementations must be thread-safe. The listener is called on the thread
+ * that ran the stage and should return quickly.
+ *
+ * Classes that accept a listener treat a null listener as "no instrumentation" and then skip
+ * every clock and allocation read.
+ */
+@FunctionalInterface
+public interface PipelineListener {
+    /**
+     * Called when a stage completes.
+     *
+     * @param metrics what the stage cost and processed
+     */
+    void stageCompleted(StageMetrics metrics);
+}
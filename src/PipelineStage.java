@@ -0,0 +1,15 @@
+/**
+ * The stages of summarizing an image, as reported to a PipelineListener.
+ */
+public enum PipelineStage {
+    /** Reading and decoding the input image file. */
+    DECODE,
+    /** Converting the image into a binary array. */
+    BINARIZE,
+    /** Finding, filtering and sorting the connected groups of the binary array. */
+    LABEL,
+    /** Writing the groups CSV. */
+    WRITE_GROUPS,
+    /** Encoding and writing the binarized image. */
+    WRITE_IMAGE
+}
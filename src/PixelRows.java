@@ -0,0 +1,84 @@
+import java.awt.image.BufferedImage;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.SampleModel;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+
+/**
+ * Reads runs of pixels out of a BufferedImage as 24-bit RGB integers (0xRRGGBB), the format
+ * ColorDistanceFinder expects.
+ *
+ * BufferedImage.getRGB converts every pixel through the image's ColorModel, which is slow. For the
+ * common layouts (TYPE_INT_RGB and TYPE_INT_ARGB, and TYPE_3BYTE_BGR and TYPE_4BYTE_ABGR as
+ * returned by ImageIO for JPEG and PNG files) the bytes are read straight out of the raster's
+ * DataBuffer instead, which gives exactly the same colors. Every other image type falls back to
+ * getRGB.
+ */
+final class PixelRows {
+    private PixelRows() {
+    }
+
+    /**
+     * Reads width pixels of row y starting at column x into rgb[0..width), with the alpha bits removed.
+     *
+     * @param image the image to read from
+     * @param x the first column to read
+     * @param y the row to read
+     * @param width the number of pixels to read
+     * @param rgb the array to store the 0xRRGGBB colors in
+     */
+    static void read(BufferedImage image, int x, int y, int width, int[] rgb) {
+        WritableRaster raster = image.getRaster();
+        DataBuffer buffer = raster.getDataBuffer();
+        SampleModel model = raster.getSampleModel();
+
+        // Sub-images share their parent's buffer, shifted by the sample model translation
+        int modelX = x - raster.getSampleModelTranslateX();
+        int modelY = y - raster.getSampleModelTranslateY();
+
+        switch (image.getType()) {
+            case BufferedImage.TYPE_INT_RGB, BufferedImage.TYPE_INT_ARGB -> {
+                if (buffer instanceof DataBufferInt && model instanceof SinglePixelPackedSampleModel) {
+                    int[] data = ((DataBufferInt) buffer).getData();
+                    int start = buffer.getOffset()
+                            + modelY * ((SinglePixelPackedSampleModel) model).getScanlineStride() + modelX;
+                    for (int i = 0; i < width; i++) {
+                        rgb[i] = data[start + i] & 0xFFFFFF;
+                    }
+                    return;
+                }
+            }
+            case BufferedImage.TYPE_3BYTE_BGR, BufferedImage.TYPE_4BYTE_ABGR -> {
+                if (buffer instanceof DataBufferByte && model instanceof ComponentSampleModel) {
+                    ComponentSampleModel components = (ComponentSampleModel) model;
+                    byte[] data = ((DataBufferByte) buffer).getData();
+                    int[] bandOffsets = components.getBandOffsets();
+                    int stride = components.getPixelStride();
+                    int start = buffer.getOffset() + modelY * components.getScanlineStride() + modelX * stride;
+
+                    // Bands are stored red, green, blue (, alpha) whatever order the bytes are in
+                    int red = start + bandOffsets[0];
+                    int green = start + bandOffsets[1];
+                    int blue = start + bandOffsets[2];
+                    for (int i = 0; i < width; i++) {
+                        rgb[i] = (data[red] & 0xFF) << 16 | (data[green] & 0xFF) << 8 | (data[blue] & 0xFF);
+                        red += stride;
+                        green += stride;
+                        blue += stride;
+                    }
+                    return;
+                }
+            }
+            default -> {
+            }
+        }
+
+        image.getRGB(x, y, width, 1, rgb, 0, width);
+        for (int i = 0; i < width; i++) {
+            rgb[i] &= 0xFFFFFF;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that PixelRows reads exactly the colors getRGB returns, for every image type.
+ */
+public class PixelRowsTest {
+
+    private static final int[] IMAGE_TYPES = {
+            BufferedImage.TYPE_INT_RGB,
+            BufferedImage.TYPE_INT_ARGB,
+            BufferedImage.TYPE_INT_ARGB_PRE,
+            BufferedImage.TYPE_INT_BGR,
+            BufferedImage.TYPE_3BYTE_BGR,
+            BufferedImage.TYPE_4BYTE_ABGR,
+            BufferedImage.TYPE_4BYTE_ABGR_PRE,
+            BufferedImage.TYPE_USHORT_565_RGB,
+            BufferedImage.TYPE_BYTE_GRAY
+    };
+
+    /** Checks every row of the image against getRGB with the alpha bits removed. */
+    private static void assertRowsMatchGetRgb(BufferedImage image) {
+        int width = image.getWidth();
+        int[] row = new int[width];
+        for (int y = 0; y < image.getHeight(); y++) {
+            PixelRows.read(image, 0, y, width, row);
+            for (int x = 0; x < width; x++) {
+                assertEquals(image.getRGB(x, y) & 0xFFFFFF, row[x],
+                        "Pixel (" + x + ", " + y + ") of image type " + image.getType());
+            }
+        }
+    }
+
+    /** Every image type, fast path or not, gives the same colors as getRGB. */
+    @Test
+    void testAllImageTypesMatchGetRgb() {
+        Random random = new Random(12);
+        for (int type : IMAGE_TYPES) {
+            assertRowsMatchGetRgb(TestImages.randomImage(random, 17, 9, type));
+        }
+    }
+
+    /** Sub-images share their parent's buffer at an offset, which must be accounted for. */
+    @Test
+    void testSubImagesMatchGetRgb() {
+        Random random = new Random(13);
+        for (int type : IMAGE_TYPES) {
+            BufferedImage parent = TestImages.randomImage(random, 30, 20, type);
+            assertRowsMatchGetRgb(parent.getSubimage(5, 3, 11, 12));
+        }
+    }
+
+    /** Reading part of a row starting in the middle gives the matching pixels. */
+    @Test
+    void testPartialRow() {
+        BufferedImage image = TestImages.randomImage(new Random(14), 20, 4, BufferedImage.TYPE_3BYTE_BGR);
+        int[] row = new int[6];
+        PixelRows.read(image, 7, 2, 6, row);
+        for (int i = 0; i < 6; i++) {
+            assertEquals(image.getRGB(7 + i, 2) & 0xFFFFFF, row[i]);
+        }
+    }
+
+    /** The sample JPEG is decoded as TYPE_3BYTE_BGR and must binarize exactly as with getRGB. */
+    @Test
+    void testSampleImageBinarizesAsWithGetRgb() throws IOException {
+        BufferedImage input = ImageIO.read(new File("sampleInput/squares.jpg"));
+        assertEquals(BufferedImage.TYPE_3BYTE_BGR, input.getType());
+
+        DistanceImageBinarizer binarizer = new DistanceImageBinarizer(new EuclideanColorDistance(), 0xFFA200, 164);
+        int[][] actual = binarizer.toBinaryArray(input);
+        for (int y = 0; y < input.getHeight(); y++) {
+            for (int x = 0; x < input.getWidth(); x++) {
+                int expected = binarizer.isWhite(input.getRGB(x, y) & 0xFFFFFF) ? 1 : 0;
+                assertEquals(expected, actual[y][x]);
+            }
+        }
+    }
+}
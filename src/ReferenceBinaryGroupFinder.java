@@ -0,0 +1,86 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Stack;
+
+/**
+ * The original depth-first search that pushes every neighbor of every pixel onto a stack, kept only
+ * so the tests can check the faster finders against it. It is too slow and allocates too much for
+ * anything else; DfsBinaryGroupFinder now runs a ScanlineBinaryGroupFinder instead.
+ */
+final class ReferenceBinaryGroupFinder implements BinaryGroupFinder {
+    private final Connectivity connectivity;
+    private final boolean eightConnected;
+
+    ReferenceBinaryGroupFinder() {
+        this(Connectivity.FOUR);
+    }
+
+    ReferenceBinaryGroupFinder(Connectivity connectivity) {
+        this.connectivity = connectivity;
+        this.eightConnected = connectivity == Connectivity.EIGHT;
+    }
+
+    @Override
+    public List<Group> findConnectedGroups(int[][] image) {
+        return findConnectedGroups(image, GroupQuery.ALL);
+    }
+
+    @Override
+    public List<Group> findConnectedGroups(int[][] image, GroupQuery query) {
+        if (!GroupFinderSupport.validate(image)) {
+            return new ArrayList<>();
+        }
+
+        boolean[][] visited = new boolean[image.length][image[0].length];
+        GroupCollector groups = new GroupCollector(query);
+        for (int y = 0; y < image.length; y++) {
+            for (int x = 0; x < image[0].length; x++) {
+                if (image[y][x] == 1 && !visited[y][x]) {
+                    explore(image, visited, x, y, groups);
+                }
+            }
+        }
+        return groups.result();
+    }
+
+    private void explore(int[][] image, boolean[][] visited, int startX, int startY, GroupCollector groups) {
+        Stack<int[]> connected = new Stack<>();
+        connected.push(new int[]{startX, startY});
+
+        long sumX = 0;
+        long sumY = 0;
+        int count = 0;
+
+        while (!connected.isEmpty()) {
+            int[] current = connected.pop();
+            int x = current[0];
+            int y = current[1];
+
+            if (x < 0 || x >= image[0].length || y < 0 || y >= image.length) continue;
+            if (visited[y][x]) continue;
+            if (image[y][x] == 0) continue;
+
+            visited[y][x] = true;
+            sumX += x;
+            sumY += y;
+            count++;
+
+            connected.push(new int[]{x, y - 1});
+            connected.push(new int[]{x, y + 1});
+            connected.push(new int[]{x - 1, y});
+            connected.push(new int[]{x + 1, y});
+            if (eightConnected) {
+                connected.push(new int[]{x - 1, y - 1});
+                connected.push(new int[]{x + 1, y - 1});
+                connected.push(new int[]{x - 1, y + 1});
+                connected.push(new int[]{x + 1, y + 1});
+            }
+        }
+        groups.add(count, sumX, sumY);
+    }
+
+    @Override
+    public Connectivity connectivity() {
+        return connectivity;
+    }
+}
@@ -0,0 +1,51 @@
+import java.awt.image.BufferedImage;
+import java.util.List;
+
+/**
+ * An ImageGroupFinder that only searches a fixed region of interest of every image it is given,
+ * by passing the region on to another ImageGroupFinder.
+ *
+ * This lets code that takes an ImageGroupFinder, such as FrameSequenceProcessor, process just the
+ * part of each frame a fixed camera cares about. Centroids are reported in full-image coordinates.
+ */
+public class RegionImageGroupFinder implements ImageGroupFinder {
+    private final ImageGroupFinder groupFinder;
+    private final RegionOfInterest region;
+
+    /**
+     * Constructs a RegionImageGroupFinder.
+     *
+     * @param groupFinder the finder to run on the region; it must support the region's shape
+     * @param region the part of each image to search
+     */
+    public RegionImageGroupFinder(ImageGroupFinder groupFinder, RegionOfInterest region) {
+        if (groupFinder == null || region == null) {
+            throw new IllegalArgumentException("Group finder and region cannot be null");
+        }
+        this.groupFinder = groupFinder;
+        this.region = region;
+    }
+
+    /**
+     * Finds the connected groups inside the region, in descending order.
+     *
+     * @param image the input BufferedImage to process
+     * @return the groups inside the region, with full-image centroids
+     */
+    @Override
+    public List<Group> findConnectedGroups(BufferedImage image) {
+        return groupFinder.findConnectedGroups(image, region, GroupQuery.ALL);
+    }
+
+    /**
+     * Finds the connected groups inside the region that the query asks for, in descending order.
+     *
+     * @param image the input BufferedImage to process
+     * @param query which groups to keep
+     * @return the kept groups inside the region, with full-image centroids
+     */
+    @Override
+    public List<Group> findConnectedGroups(BufferedImage image, GroupQuery query) {
+        return groupFinder.findConnectedGroups(image, region, query);
+    }
+}
@@ -0,0 +1,126 @@
+import java.awt.Polygon;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * The part of an image that group finding should look at, either a rectangle or a polygon.
+ *
+ * Only the pixels inside the region are read, binarized and labeled. Pixels outside it are treated as
+ * black, so a group that crosses the region's edge is cut off there. The groups found are still reported
+ * in full-image coordinates.
+ *
+ * A pixel (x, y) is inside a polygon if its center (x + 0.5, y + 0.5) is inside the polygon by the
+ * even-odd rule, as java.awt.Polygon defines it. Which pixels are inside is worked out once, when the
+ * region is created, so a region can be reused for every frame from a fixed camera.
+ *
+ * A region may extend past the edges of an image; only the part that overlaps the image is used.
+ * Regions are immutable and safe to share between threads.
+ */
+public final class RegionOfInterest {
+    private final Rectangle bounds;
+    // Which pixels of bounds are inside a polygon region, or null for a rectangle
+    private final BinaryMask inside;
+
+    private RegionOfInterest(Rectangle bounds, BinaryMask inside) {
+        this.bounds = bounds;
+        this.inside = inside;
+    }
+
+    /**
+     * Creates a rectangular region.
+     *
+     * @param x the left column of the region
+     * @param y the top row of the region
+     * @param width the number of columns, at least 1
+     * @param height the number of rows, at least 1
+     * @return the region
+     */
+    public static RegionOfInterest rectangle(int x, int y, int width, int height) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Region must be at least 1x1");
+        }
+        return new RegionOfInterest(new Rectangle(x, y, width, height), null);
+    }
+
+    /**
+     * Creates a polygonal region from its vertices, in order.
+     *
+     * @param xPoints the x coordinates of the vertices
+     * @param yPoints the y coordinates of the vertices
+     * @return the region
+     * @throws IllegalArgumentException if there are fewer than 3 vertices, the arrays differ in length
+     *         or no pixel center is inside the polygon
+     */
+    public static RegionOfInterest polygon(int[] xPoints, int[] yPoints) {
+        if (xPoints == null || yPoints == null) {
+            throw new IllegalArgumentException("Points cannot be null");
+        }
+        if (xPoints.length != yPoints.length) {
+            throw new IllegalArgumentException("Must have the same length!");
+        }
+        if (xPoints.length < 3) {
+            throw new IllegalArgumentException("A polygon needs at least 3 points");
+        }
+
+        Polygon polygon = new Polygon(Arrays.copyOf(xPoints, xPoints.length), Arrays.copyOf(yPoints, yPoints.length),
+                xPoints.length);
+        Rectangle bounds = polygon.getBounds();
+        if (bounds.isEmpty()) {
+            throw new IllegalArgumentException("Polygon has no area");
+        }
+
+        BinaryMask inside = new BinaryMask(bounds.width, bounds.height);
+        for (int y = 0; y < bounds.height; y++) {
+            for (int x = 0; x < bounds.width; x++) {
+                if (polygon.contains(bounds.x + x + 0.5, bounds.y + y + 0.5)) {
+                    inside.set(x, y);
+                }
+            }
+        }
+        if (inside.countWhite() == 0) {
+            throw new IllegalArgumentException("Polygon has no area");
+        }
+        return new RegionOfInterest(bounds, inside);
+    }
+
+    /**
+     * @return the smallest rectangle containing the region
+     */
+    public Rectangle bounds() {
+        return new Rectangle(bounds);
+    }
+
+    /**
+     * @return true if the region is a rectangle, so every pixel in its bounds is inside it
+     */
+    public boolean isRectangle() {
+        return inside == null;
+    }
+
+    /**
+     * @return true if pixel (x, y) is inside the region
+     */
+    public boolean contains(int x, int y) {
+        if (!bounds.contains(x, y)) {
+            return false;
+        }
+        return inside == null || inside.get(x - bounds.x, y - bounds.y);
+    }
+
+    /**
+     * Finds the part of the region's bounds that lies inside an image.
+     *
+     * @param image the image
+     * @return the overlap, which is empty if the region is entirely outside the image
+     */
+    public Rectangle clip(BufferedImage image) {
+        return bounds.intersection(new Rectangle(0, 0, image.getWidth(), image.getHeight()));
+    }
+
+    @Override
+    public String toString() {
+        return (inside == null ? "rectangle " : "polygon in ")
+                + bounds.x + "," + bounds.y + " " + bounds.width + "x" + bounds.height;
+    }
+}
@@ -0,0 +1,153 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.Polygon;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for RegionOfInterest and the region-of-interest overloads of the binarizers and image group finders.
+ */
+public class RegionOfInterestTest {
+
+    private static final DistanceImageBinarizer BINARIZER =
+            new DistanceImageBinarizer(new EuclideanColorDistance(), 0xFFFFFF, 10);
+
+    /** The groups of the whole image after painting every pixel outside the region black. */
+    private static List<Group> expected(BufferedImage image, RegionOfInterest region, GroupQuery query) {
+        BufferedImage masked = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                masked.setRGB(x, y, region.contains(x, y) ? image.getRGB(x, y) : 0x000000);
+            }
+        }
+        return new BinarizingImageGroupFinder(BINARIZER, new ReferenceBinaryGroupFinder()).findConnectedGroups(masked, query);
+    }
+
+    /** Rectangles, including ones that hang off the image, match masking the image first. */
+    @Test
+    void testRectangles() {
+        Random random = new Random(20);
+        ImageGroupFinder plain = new BinarizingImageGroupFinder(BINARIZER, new ScanlineBinaryGroupFinder());
+        // Only has the default region method
+        ImageGroupFinder byDefault = plain::findConnectedGroups;
+        List<ImageGroupFinder> finders = List.of(plain, new FusedImageGroupFinder(BINARIZER), byDefault);
+
+        for (int trial = 0; trial < 30; trial++) {
+            BufferedImage image = TestImages.randomBlackAndWhiteImage(random, 10 + random.nextInt(40), 10 + random.nextInt(40), 0.5);
+            RegionOfInterest region = RegionOfInterest.rectangle(random.nextInt(60) - 10, random.nextInt(60) - 10,
+                    1 + random.nextInt(40), 1 + random.nextInt(40));
+            GroupQuery query = trial % 3 == 0 ? new GroupQuery(2, 5) : GroupQuery.ALL;
+
+            List<Group> expected = region.clip(image).isEmpty() ? List.of() : expected(image, region, query);
+            for (ImageGroupFinder finder : finders) {
+                assertEquals(expected, finder.findConnectedGroups(image, region, query), region.toString());
+            }
+        }
+    }
+
+    /** Polygons match masking the image first. */
+    @Test
+    void testPolygons() {
+        Random random = new Random(21);
+        List<ImageGroupFinder> finders = List.of(
+                new BinarizingImageGroupFinder(BINARIZER, new UnionFindBinaryGroupFinder()),
+                new FusedImageGroupFinder(BINARIZER));
+
+        for (int trial = 0; trial < 30; trial++) {
+            BufferedImage image = TestImages.randomBlackAndWhiteImage(random, 40, 30, 0.5);
+            int[] xs = new int[3 + random.nextInt(4)];
+            int[] ys = new int[xs.length];
+            for (int i = 0; i < xs.length; i++) {
+                xs[i] = random.nextInt(50) - 5;
+                ys[i] = random.nextInt(40) - 5;
+            }
+            RegionOfInterest region;
+            try {
+                region = RegionOfInterest.polygon(xs, ys);
+            } catch (IllegalArgumentException e) {
+                // A degenerate polygon with no pixel inside it
+                continue;
+            }
+
+            List<Group> expected = region.clip(image).isEmpty() ? List.of() : expected(image, region, GroupQuery.ALL);
+            for (ImageGroupFinder finder : finders) {
+                assertEquals(expected, finder.findConnectedGroups(image, region, GroupQuery.ALL), region.toString());
+            }
+        }
+    }
+
+    /** A pixel is inside a polygon exactly when its center is. */
+    @Test
+    void testPolygonContains() {
+        int[] xs = {2, 17, 9};
+        int[] ys = {1, 4, 15};
+        RegionOfInterest region = RegionOfInterest.polygon(xs, ys);
+        Polygon polygon = new Polygon(xs, ys, 3);
+
+        assertFalse(region.isRectangle());
+        assertEquals(polygon.getBounds(), region.bounds());
+        for (int y = -2; y < 20; y++) {
+            for (int x = -2; x < 20; x++) {
+                assertEquals(polygon.contains(x + 0.5, y + 0.5), region.contains(x, y), x + "," + y);
+            }
+        }
+    }
+
+    /** Only the part of the image inside the rectangle is handed to the binarizer. */
+    @Test
+    void testRectangleOnlyReadsRegion() {
+        BufferedImage image = TestImages.randomBlackAndWhiteImage(new Random(22), 100, 80, 0.5);
+        int[] seen = new int[2];
+        ImageBinarizer recording = new ImageBinarizer() {
+            @Override
+            public int[][] toBinaryArray(BufferedImage region) {
+                seen[0] = region.getWidth();
+                seen[1] = region.getHeight();
+                return BINARIZER.toBinaryArray(region);
+            }
+
+            @Override
+            public BufferedImage toBufferedImage(int[][] binary) {
+                return BINARIZER.toBufferedImage(binary);
+            }
+        };
+
+        RegionOfInterest region = RegionOfInterest.rectangle(90, 70, 20, 20);
+        int[][] binary = recording.toBinaryArray(image, region);
+        assertArrayEquals(new int[] {10, 10}, seen);
+        assertEquals(10, binary.length);
+        assertEquals(new Rectangle(90, 70, 10, 10), region.clip(image));
+        assertEquals(0, recording.toBinaryArray(image, RegionOfInterest.rectangle(200, 0, 5, 5)).length);
+    }
+
+    /** The decorator applies its region to every image. */
+    @Test
+    void testRegionImageGroupFinder() {
+        BufferedImage image = TestImages.randomBlackAndWhiteImage(new Random(23), 30, 30, 0.5);
+        RegionOfInterest region = RegionOfInterest.rectangle(5, 8, 12, 10);
+        ImageGroupFinder finder = new RegionImageGroupFinder(new FusedImageGroupFinder(BINARIZER), region);
+
+        assertEquals(expected(image, region, GroupQuery.ALL), finder.findConnectedGroups(image));
+        assertEquals(expected(image, region, new GroupQuery(0, 2)), finder.findConnectedGroups(image, new GroupQuery(0, 2)));
+    }
+
+    /** Bad regions and finders that cannot mask polygons are rejected. */
+    @Test
+    void testInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> RegionOfInterest.rectangle(0, 0, 0, 5));
+        assertThrows(IllegalArgumentException.class, () -> RegionOfInterest.polygon(new int[] {0, 1}, new int[] {0, 1}));
+        assertThrows(IllegalArgumentException.class, () -> RegionOfInterest.polygon(new int[] {0, 1, 2}, new int[] {0, 1}));
+        assertThrows(IllegalArgumentException.class, () -> RegionOfInterest.polygon(new int[] {0, 5, 10}, new int[] {0, 0, 0}));
+
+        BufferedImage image = new BufferedImage(5, 5, BufferedImage.TYPE_INT_RGB);
+        ImageGroupFinder byDefault = new FusedImageGroupFinder(BINARIZER)::findConnectedGroups;
+        RegionOfInterest triangle = RegionOfInterest.polygon(new int[] {0, 5, 0}, new int[] {0, 0, 5});
+        assertThrows(UnsupportedOperationException.class, () -> byDefault.findConnectedGroups(image, triangle, GroupQuery.ALL));
+        assertThrows(IllegalArgumentException.class,
+                () -> new FusedImageGroupFinder(BINARIZER).findConnectedGroups(image, null, GroupQuery.ALL));
+    }
+}
@@ -0,0 +1,255 @@
+import java.util.Arrays;
+
+/**
+ * Labels the connected groups of a horizontal strip of a binary image one row at a time.
+ *
+ * Rows are fed in top to bottom. Each white pixel gets a provisional label from its left or upper
+ * neighbor, or with eight-connectivity also its upper-left or upper-right neighbor (or a new
+ * label), touching labels are merged in a LabelForest, and the pixel is added straight away to
+ * the size and coordinate sums of its provisional label. Only the labels of the previous row are
+ * kept.
+ *
+ * By default every label lives until finish(), so the labels of the strip's first and last rows
+ * can be stitched to those of strips labeled separately. That costs 24 bytes per label, and a
+ * noisy strip can have about one label for every two pixels.
+ *
+ * A labeler given a GroupCollector instead recycles its labels. After each row the labels still
+ * touching that row are renumbered from 1, and every group that no longer touches it is complete
+ * and goes straight to the collector. At most one label per pixel of the row is ever alive, so
+ * memory grows with the image width alone.
+ *
+ * After finish() is called the sums of every label are folded into its root.
+ */
+final class RowLabeler {
+    private final int width;
+    private final boolean eightConnected;
+    private final LabelForest forest = new LabelForest();
+    private final GroupCollector finished;
+
+    private int[] previous;
+    private int[] current;
+    private int[] firstRow;
+    private int y;
+
+    private int[] size = new int[256];
+    private long[] sumX = new long[256];
+    private long[] sumY = new long[256];
+
+    // Scratch space for recycling labels, allocated on the first row
+    private int[] renumbered;
+    private int[] keptSize;
+    private long[] keptSumX;
+    private long[] keptSumY;
+
+    /**
+     * @param width the width of every row that will be added
+     * @param firstY the y coordinate of the first row that will be added
+     */
+    RowLabeler(int width, int firstY) {
+        this(width, firstY, Connectivity.FOUR);
+    }
+
+    /**
+     * @param width the width of every row that will be added
+     * @param firstY the y coordinate of the first row that will be added
+     * @param connectivity which neighboring pixels are connected
+     */
+    RowLabeler(int width, int firstY, Connectivity connectivity) {
+        this(width, firstY, connectivity, null);
+    }
+
+    /**
+     * @param width the width of every row that will be added
+     * @param firstY the y coordinate of the first row that will be added
+     * @param connectivity which neighboring pixels are connected
+     * @param finished receives each group as soon as it is complete so its labels can be reused,
+     *                 or null to keep every label until finish()
+     */
+    RowLabeler(int width, int firstY, Connectivity connectivity, GroupCollector finished) {
+        this.width = width;
+        this.finished = finished;
+        this.eightConnected = connectivity == Connectivity.EIGHT;
+        this.y = firstY;
+        this.previous = new int[width];
+        this.current = new int[width];
+    }
+
+    /**
+     * Labels the next row of the strip.
+     *
+     * @param row the pixels of the row, where 1 is white and anything else is black
+     */
+    void addRow(int[] row) {
+        for (int x = 0; x < width; x++) {
+            if (row[x] != 1) {
+                current[x] = 0;
+                continue;
+            }
+
+            int left = x > 0 ? current[x - 1] : 0;
+            int up = previous[x];
+            int label = left != 0 ? left : up;
+            if (left != 0 && up != 0 && up != left) {
+                forest.union(left, up);
+            }
+
+            if (eightConnected) {
+                int upLeft = x > 0 ? previous[x - 1] : 0;
+                int upRight = x < width - 1 ? previous[x + 1] : 0;
+                label = forest.joinDiagonals(label, upLeft, upRight);
+            }
+
+            if (label == 0) {
+                label = newLabel();
+            }
+
+            current[x] = label;
+            size[label]++;
+            sumX[label] += x;
+            sumY[label] += y;
+        }
+
+        if (finished != null) {
+            recycleLabels();
+        } else if (firstRow == null) {
+            firstRow = current.clone();
+        }
+
+        int[] swap = previous;
+        previous = current;
+        current = swap;
+        y++;
+    }
+
+    /**
+     * Folds the sums of every label into its root. Must be called once, after the last row.
+     */
+    void finish() {
+        foldIntoRoots();
+    }
+
+    private void foldIntoRoots() {
+        for (int label = 1; label <= forest.size(); label++) {
+            int root = forest.find(label);
+            if (root != label) {
+                size[root] += size[label];
+                sumX[root] += sumX[label];
+                sumY[root] += sumY[label];
+            }
+        }
+    }
+
+    /**
+     * @return the largest label used by this strip
+     */
+    int labelCount() {
+        return forest.size();
+    }
+
+    /**
+     * @return the root label of the group the given label belongs to
+     */
+    int root(int label) {
+        return forest.find(label);
+    }
+
+    /** The pixel count of a root label. Only valid after finish(). */
+    int size(int label) {
+        return size[label];
+    }
+
+    /** The sum of x coordinates of a root label. Only valid after finish(). */
+    long sumX(int label) {
+        return sumX[label];
+    }
+
+    /** The sum of y coordinates of a root label. Only valid after finish(). */
+    long sumY(int label) {
+        return sumY[label];
+    }
+
+    /**
+     * @return the provisional labels of the first row added, 0 for black pixels, or null if
+     *         this labeler recycles its labels
+     */
+    int[] firstRowLabels() {
+        return firstRow;
+    }
+
+    /**
+     * @return the provisional labels of the last row added, 0 for black pixels
+     */
+    int[] lastRowLabels() {
+        return previous;
+    }
+
+    /**
+     * Offers one group per root label to the collector. Only valid after finish().
+     */
+    void addGroupsTo(GroupCollector groups) {
+        for (int label = 1; label <= forest.size(); label++) {
+            if (forest.find(label) == label) {
+                groups.add(size[label], sumX[label], sumY[label]);
+            }
+        }
+    }
+
+    private int newLabel() {
+        int label = forest.newLabel();
+        if (label == size.length) {
+            size = Arrays.copyOf(size, size.length * 2);
+            sumX = Arrays.copyOf(sumX, sumX.length * 2);
+            sumY = Arrays.copyOf(sumY, sumY.length * 2);
+        }
+        size[label] = 0;
+        sumX[label] = 0;
+        sumY[label] = 0;
+        return label;
+    }
+
+    // Hands every group that does not reach the current row to the collector and renumbers the
+    // groups that do as 1..n, each its own root, so the forest never holds more than one row
+    private void recycleLabels() {
+        int count = forest.size();
+        if (renumbered == null || renumbered.length < size.length) {
+            renumbered = new int[size.length];
+            keptSize = new int[size.length];
+            keptSumX = new long[size.length];
+            keptSumY = new long[size.length];
+        }
+        foldIntoRoots();
+
+        int kept = 0;
+        for (int x = 0; x < width; x++) {
+            if (current[x] == 0) continue;
+
+            int root = forest.find(current[x]);
+            if (renumbered[root] == 0) {
+                kept++;
+                renumbered[root] = kept;
+                keptSize[kept] = size[root];
+                keptSumX[kept] = sumX[root];
+                keptSumY[kept] = sumY[root];
+            }
+            current[x] = renumbered[root];
+        }
+
+        for (int label = 1; label <= count; label++) {
+            if (renumbered[label] == 0 && forest.find(label) == label) {
+                finished.add(size[label], sumX[label], sumY[label]);
+            }
+            renumbered[label] = 0;
+        }
+
+        int[] swapSize = size;
+        size = keptSize;
+        keptSize = swapSize;
+        long[] swapSum = sumX;
+        sumX = keptSumX;
+        keptSumX = swapSum;
+        swapSum = sumY;
+        sumY = keptSumY;
+        keptSumY = swapSum;
+        forest.reset(kept);
+    }
+}
@@ -0,0 +1,422 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A BinaryGroupFinder that fills each group one horizontal run (span) of pixels at a time.
+ *
+ * Instead of pushing every neighbor of every pixel onto a stack, the whole run of white pixels
+ * containing a seed is marked at once, and only one seed per run in the rows directly above and
+ * below is pushed. Seeds are stored as (x, y) pairs in a single growable int array that is reused
+ * for every group in the image, so filling a group allocates no per-pixel objects.
+ *
+ * With eight-connectivity the rows above and below are searched from one pixel left of the span to
+ * one pixel right of it, so runs that only touch the span diagonally are seeded too.
+ *
+ * The groups found are exactly the same as the ones found by DfsBinaryGroupFinder with the same
+ * connectivity.
+ *
+ * findGroupStats fills the groups the same way while also adding up the sums behind each group's
+ * GroupStats. The sums of x, x squared and x times y over a span have closed forms, so only the
+ * perimeter costs a look at each pixel, next to marking it visited.
+ */
+public class ScanlineBinaryGroupFinder implements BinaryGroupFinder {
+    private final Connectivity connectivity;
+    // How far past each end of a span the rows above and below are searched: 0 or 1
+    private final int reach;
+
+    /**
+     * Constructs a ScanlineBinaryGroupFinder that connects pixels vertically and horizontally.
+     */
+    public ScanlineBinaryGroupFinder() {
+        this(Connectivity.FOUR);
+    }
+
+    /**
+     * Constructs a ScanlineBinaryGroupFinder with the given connectivity.
+     *
+     * @param connectivity which neighboring pixels are connected
+     */
+    public ScanlineBinaryGroupFinder(Connectivity connectivity) {
+        if (connectivity == null) {
+            throw new IllegalArgumentException("Connectivity cannot be null");
+        }
+        this.connectivity = connectivity;
+        this.reach = connectivity == Connectivity.EIGHT ? 1 : 0;
+    }
+
+    /**
+     * Finds connected pixel groups of 1s in a binary image, connected vertically and horizontally,
+     * and diagonally too with eight-connectivity. See BinaryGroupFinder for the full contract.
+     *
+     * @param image a rectangular 2D array containing only 1s and 0s
+     * @return the found groups of connected pixels in descending order
+     */
+    @Override
+    public List<Group> findConnectedGroups(int[][] image) {
+        return findConnectedGroups(image, GroupQuery.ALL);
+    }
+
+    /**
+     * Finds the connected groups the query asks for. Groups the query rejects are dropped as soon
+     * as they have been filled.
+     *
+     * @param image a rectangular 2D array containing only 1s and 0s
+     * @param query which groups to keep
+     * @return the kept groups in descending order
+     */
+    @Override
+    public List<Group> findConnectedGroups(int[][] image, GroupQuery query) {
+        if (!GroupFinderSupport.validate(image)) {
+            return new ArrayList<>();
+        }
+        GroupCollector groups = new GroupCollector(query);
+
+        int rows = image.length;
+        int cols = image[0].length;
+        boolean[][] visited = new boolean[rows][cols];
+        SeedStack seeds = new SeedStack();
+
+        for (int y = 0; y < rows; y++) {
+            for (int x = 0; x < cols; x++) {
+                if (image[y][x] == 1 && !visited[y][x]) {
+                    fillGroup(image, visited, seeds, x, y, groups);
+                }
+            }
+        }
+
+        return groups.result();
+    }
+
+    @Override
+    public Connectivity connectivity() {
+        return connectivity;
+    }
+
+    /**
+     * Finds connected groups of white pixels in a bit-packed mask, with the same result as
+     * findConnectedGroups(mask.toArray()). Words of 64 black pixels are skipped in one step.
+     *
+     * @param mask the binary mask to search
+     * @return the found groups of connected pixels in descending order
+     */
+    @Override
+    public List<Group> findConnectedGroupsInMask(BinaryMask mask) {
+        return findConnectedGroupsInMask(mask, GroupQuery.ALL);
+    }
+
+    /**
+     * Finds the connected groups the query asks for in a bit-packed mask.
+     *
+     * @param mask the binary mask to search
+     * @param query which groups to keep
+     * @return the kept groups in descending order
+     */
+    @Override
+    public List<Group> findConnectedGroupsInMask(BinaryMask mask, GroupQuery query) {
+        if (mask == null) {
+            throw new NullPointerException("Cannot be null");
+        }
+        GroupCollector groups = new GroupCollector(query);
+
+        // Pixels are cleared from the copy as they are filled, so it doubles as the visited grid
+        BinaryMask remaining = mask.copy();
+        SeedStack seeds = new SeedStack();
+
+        for (int y = 0; y < remaining.height(); y++) {
+            for (int w = 0; w < remaining.wordsPerRow(); w++) {
+                long word = remaining.word(y, w);
+                while (word != 0) {
+                    int x = (w << 6) + Long.numberOfTrailingZeros(word);
+                    fillMaskGroup(remaining, seeds, x, y, groups);
+                    word = remaining.word(y, w);
+                }
+            }
+        }
+
+        return groups.result();
+    }
+
+    /**
+     * Finds the connected groups like findConnectedGroups(int[][]), along with the bounding box,
+     * second moments, perimeter and exact centroid of each one, in the same single pass over the image.
+     *
+     * @param image a rectangular 2D array containing only 1s and 0s
+     * @return the statistics of the found groups in descending order of their groups
+     */
+    public List<GroupStats> findGroupStats(int[][] image) {
+        return findGroupStats(image, GroupQuery.ALL);
+    }
+
+    /**
+     * Finds the statistics of the connected groups the query asks for. Like findConnectedGroups,
+     * groups the query rejects are dropped as soon as they have been filled.
+     *
+     * @param image a rectangular 2D array containing only 1s and 0s
+     * @param query which groups to keep
+     * @return the statistics of the kept groups in descending order of their groups
+     */
+    public List<GroupStats> findGroupStats(int[][] image, GroupQuery query) {
+        GroupCollector.Ranking<GroupStats> stats = new GroupCollector.Ranking<>(query, GroupStats::size);
+        if (!GroupFinderSupport.validate(image)) {
+            return new ArrayList<>();
+        }
+
+        int rows = image.length;
+        int cols = image[0].length;
+        boolean[][] visited = new boolean[rows][cols];
+        SeedStack seeds = new SeedStack();
+
+        for (int y = 0; y < rows; y++) {
+            for (int x = 0; x < cols; x++) {
+                if (image[y][x] == 1 && !visited[y][x]) {
+                    fillStats(image, visited, seeds, x, y, stats);
+                }
+            }
+        }
+
+        return stats.result();
+    }
+
+    // Fills the group containing (startX, startY) span by span and offers its size and sums to the collector
+    private void fillGroup(int[][] image, boolean[][] visited, SeedStack seeds, int startX, int startY,
+            GroupCollector groups) {
+        int rows = image.length;
+        int cols = image[0].length;
+
+        int count = 0;
+        long sumX = 0;
+        long sumY = 0;
+
+        seeds.push(startX, startY);
+        while (!seeds.isEmpty()) {
+            int y = seeds.popY();
+            int x = seeds.popX();
+
+            // Another span may already have covered this seed
+            if (visited[y][x]) continue;
+
+            int[] row = image[y];
+            boolean[] seen = visited[y];
+
+            // Grow the span as far as it goes in both directions
+            int left = x;
+            while (left > 0 && row[left - 1] == 1 && !seen[left - 1]) {
+                left--;
+            }
+            int right = x;
+            while (right < cols - 1 && row[right + 1] == 1 && !seen[right + 1]) {
+                right++;
+            }
+
+            for (int i = left; i <= right; i++) {
+                seen[i] = true;
+            }
+
+            int length = right - left + 1;
+            count += length;
+            sumX += (long) (left + right) * length / 2;
+            sumY += (long) y * length;
+
+            int from = Math.max(0, left - reach);
+            int to = Math.min(cols - 1, right + reach);
+            if (y > 0) {
+                pushSpanSeeds(image[y - 1], visited[y - 1], from, to, y - 1, seeds);
+            }
+            if (y < rows - 1) {
+                pushSpanSeeds(image[y + 1], visited[y + 1], from, to, y + 1, seeds);
+            }
+        }
+
+        groups.add(count, sumX, sumY);
+    }
+
+    // Same as fillGroup, but also keeps the sums behind the group's statistics
+    private void fillStats(int[][] image, boolean[][] visited, SeedStack seeds, int startX, int startY,
+            GroupCollector.Ranking<GroupStats> stats) {
+        int rows = image.length;
+        int cols = image[0].length;
+
+        int count = 0;
+        long sumX = 0;
+        long sumY = 0;
+        long sumXX = 0;
+        long sumYY = 0;
+        long sumXY = 0;
+        int minX = startX;
+        int minY = startY;
+        int maxX = startX;
+        int maxY = startY;
+        int perimeter = 0;
+
+        seeds.push(startX, startY);
+        while (!seeds.isEmpty()) {
+            int y = seeds.popY();
+            int x = seeds.popX();
+
+            if (visited[y][x]) continue;
+
+            int[] row = image[y];
+            boolean[] seen = visited[y];
+
+            int left = x;
+            while (left > 0 && row[left - 1] == 1 && !seen[left - 1]) {
+                left--;
+            }
+            int right = x;
+            while (right < cols - 1 && row[right + 1] == 1 && !seen[right + 1]) {
+                right++;
+            }
+
+            // A span is a whole run, so its two ends are on the edge; the rest are if a pixel above or below is black
+            boolean edgeRow = y == 0 || y == rows - 1;
+            int[] above = edgeRow ? null : image[y - 1];
+            int[] below = edgeRow ? null : image[y + 1];
+            for (int i = left; i <= right; i++) {
+                seen[i] = true;
+                if (edgeRow || i == left || i == right || above[i] == 0 || below[i] == 0) {
+                    perimeter++;
+                }
+            }
+
+            int length = right - left + 1;
+            long spanSumX = (long) (left + right) * length / 2;
+            count += length;
+            sumX += spanSumX;
+            sumY += (long) y * length;
+            sumXX += sumOfSquares(right) - sumOfSquares(left - 1);
+            sumYY += (long) y * y * length;
+            sumXY += y * spanSumX;
+            minX = Math.min(minX, left);
+            maxX = Math.max(maxX, right);
+            minY = Math.min(minY, y);
+            maxY = Math.max(maxY, y);
+
+            int from = Math.max(0, left - reach);
+            int to = Math.min(cols - 1, right + reach);
+            if (y > 0) {
+                pushSpanSeeds(image[y - 1], visited[y - 1], from, to, y - 1, seeds);
+            }
+            if (y < rows - 1) {
+                pushSpanSeeds(image[y + 1], visited[y + 1], from, to, y + 1, seeds);
+            }
+        }
+
+        if (stats.wants(count)) {
+            stats.add(GroupStats.fromSums(count, sumX, sumY, sumXX, sumYY, sumXY, minX, minY, maxX, maxY, perimeter));
+        }
+    }
+
+    // 0^2 + 1^2 + ... + n^2, or 0 for n below 1
+    private static long sumOfSquares(long n) {
+        return n < 1 ? 0 : n * (n + 1) * (2 * n + 1) / 6;
+    }
+
+    // Pushes one seed for every run of unvisited white pixels in row y between left and right
+    private void pushSpanSeeds(int[] row, boolean[] seen, int left, int right, int y, SeedStack seeds) {
+        int x = left;
+        while (x <= right) {
+            if (row[x] == 1 && !seen[x]) {
+                seeds.push(x, y);
+                while (x <= right && row[x] == 1 && !seen[x]) {
+                    x++;
+                }
+            } else {
+                x++;
+            }
+        }
+    }
+
+    // Same as fillGroup, but clears the filled pixels from the mask instead of marking them visited
+    private void fillMaskGroup(BinaryMask remaining, SeedStack seeds, int startX, int startY,
+            GroupCollector groups) {
+        int rows = remaining.height();
+        int cols = remaining.width();
+
+        int count = 0;
+        long sumX = 0;
+        long sumY = 0;
+
+        seeds.push(startX, startY);
+        while (!seeds.isEmpty()) {
+            int y = seeds.popY();
+            int x = seeds.popX();
+
+            if (!remaining.get(x, y)) continue;
+
+            int left = x;
+            while (left > 0 && remaining.get(left - 1, y)) {
+                left--;
+            }
+            int right = x;
+            while (right < cols - 1 && remaining.get(right + 1, y)) {
+                right++;
+            }
+
+            for (int i = left; i <= right; i++) {
+                remaining.clear(i, y);
+            }
+
+            int length = right - left + 1;
+            count += length;
+            sumX += (long) (left + right) * length / 2;
+            sumY += (long) y * length;
+
+            int from = Math.max(0, left - reach);
+            int to = Math.min(cols - 1, right + reach);
+            if (y > 0) {
+                pushMaskSpanSeeds(remaining, from, to, y - 1, seeds);
+            }
+            if (y < rows - 1) {
+                pushMaskSpanSeeds(remaining, from, to, y + 1, seeds);
+            }
+        }
+
+        groups.add(count, sumX, sumY);
+    }
+
+    // Pushes one seed for every run of remaining white pixels in row y between left and right
+    private void pushMaskSpanSeeds(BinaryMask remaining, int left, int right, int y, SeedStack seeds) {
+        int x = left;
+        while (x <= right) {
+            if (remaining.get(x, y)) {
+                seeds.push(x, y);
+                while (x <= right && remaining.get(x, y)) {
+                    x++;
+                }
+            } else {
+                x++;
+            }
+        }
+    }
+
+    /**
+     * A stack of (x, y) seeds kept in a flat int array that doubles in size when it fills up.
+     */
+    private static final class SeedStack {
+        private int[] data = new int[64];
+        private int size;
+
+        void push(int x, int y) {
+            if (size + 2 > data.length) {
+                int[] bigger = new int[data.length * 2];
+                System.arraycopy(data, 0, bigger, 0, size);
+                data = bigger;
+            }
+            data[size++] = x;
+            data[size++] = y;
+        }
+
+        // Seeds are popped y first, then x
+        int popY() {
+            return data[--size];
+        }
+
+        int popX() {
+            return data[--size];
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+    }
+}
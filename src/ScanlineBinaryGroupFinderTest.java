@@ -0,0 +1,324 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Regression tests checking that ScanlineBinaryGroupFinder finds exactly the same
+ * groups as the reference DFS, and that its group statistics are right.
+ */
+public class ScanlineBinaryGroupFinderTest {
+
+    private final ScanlineBinaryGroupFinder finder = new ScanlineBinaryGroupFinder();
+    private final BinaryGroupFinder reference = new ReferenceBinaryGroupFinder();
+
+    /** Random masks of many shapes and densities should match the DFS output exactly. */
+    @Test
+    void testMatchesDfsOnRandomMasks() {
+        Random random = new Random(42);
+        double[] densities = {0.05, 0.3, 0.5, 0.6, 0.9, 1.0};
+        for (int trial = 0; trial < 60; trial++) {
+            int width = 1 + random.nextInt(80);
+            int height = 1 + random.nextInt(80);
+            double density = densities[trial % densities.length];
+            int[][] image = TestImages.randomMask(random, width, height, density);
+
+            assertEquals(reference.findConnectedGroups(image), finder.findConnectedGroups(image),
+                    "Mismatch on " + width + "x" + height + " mask with density " + density);
+        }
+    }
+
+    /** With eight-connectivity, random masks and their packed copies match the eight-connected DFS. */
+    @Test
+    void testEightConnectedMatchesDfs() {
+        BinaryGroupFinder eightReference = new ReferenceBinaryGroupFinder(Connectivity.EIGHT);
+        ScanlineBinaryGroupFinder eight = new ScanlineBinaryGroupFinder(Connectivity.EIGHT);
+        Random random = new Random(24);
+        double[] densities = {0.1, 0.3, 0.45, 0.6};
+        for (int trial = 0; trial < 40; trial++) {
+            int width = 1 + random.nextInt(90);
+            int height = 1 + random.nextInt(60);
+            int[][] image = TestImages.randomMask(random, width, height, densities[trial % densities.length]);
+
+            List<Group> expected = eightReference.findConnectedGroups(image);
+            assertEquals(expected, eight.findConnectedGroups(image));
+            assertEquals(expected, eight.findConnectedGroupsInMask(BinaryMask.fromArray(image)));
+        }
+
+        // A staircase whose steps only meet at their corners
+        int[][] stairs = new int[10][70];
+        for (int y = 0; y < 10; y++) {
+            for (int x = 7 * y; x < 7 * y + 7; x++) {
+                stairs[y][x] = 1;
+            }
+        }
+        assertEquals(1, eight.findConnectedGroups(stairs).size());
+        assertEquals(10, finder.findConnectedGroups(stairs).size());
+    }
+
+    /** Binarizing the sample image and finding its groups should match the DFS output exactly. */
+    @Test
+    void testMatchesDfsOnSampleImage() throws IOException {
+        BufferedImage input = ImageIO.read(new File("sampleInput/squares.jpg"));
+        ImageBinarizer binarizer = new DistanceImageBinarizer(new EuclideanColorDistance(), 0xFFA200, 164);
+        int[][] image = binarizer.toBinaryArray(input);
+
+        List<Group> expected = reference.findConnectedGroups(image);
+        assertEquals(expected, finder.findConnectedGroups(image));
+        assertEquals(new Group(6987, new Coordinate(533, 510)), expected.get(0));
+    }
+
+    /** The bit-packed mask path should match the array path, including groups crossing word boundaries. */
+    @Test
+    void testMaskMatchesArrayOnRandomMasks() {
+        Random random = new Random(9);
+        double[] densities = {0.01, 0.3, 0.6, 1.0};
+        for (int trial = 0; trial < 40; trial++) {
+            int width = 1 + random.nextInt(200);
+            int height = 1 + random.nextInt(40);
+            double density = densities[trial % densities.length];
+            int[][] image = TestImages.randomMask(random, width, height, density);
+            BinaryMask mask = BinaryMask.fromArray(image);
+
+            assertEquals(reference.findConnectedGroups(image), finder.findConnectedGroupsInMask(mask),
+                    "Mismatch on " + width + "x" + height + " mask with density " + density);
+            assertEquals(BinaryMask.fromArray(image), mask, "The caller's mask must not be modified");
+        }
+    }
+
+    /** Null mask should throw a NullPointerException. */
+    @Test
+    void testNullMask() {
+        assertThrows(NullPointerException.class, () -> finder.findConnectedGroupsInMask(null));
+    }
+
+    /** A serpentine path forces spans to be revisited from both above and below. */
+    @Test
+    void testSerpentineGroup() {
+        int[][] image = new int[9][9];
+        for (int y = 0; y < 9; y += 2) {
+            for (int x = 0; x < 9; x++) {
+                image[y][x] = 1;
+            }
+        }
+        for (int y = 1; y < 9; y += 2) {
+            image[y][(y / 2) % 2 == 0 ? 8 : 0] = 1;
+        }
+
+        List<Group> groups = finder.findConnectedGroups(image);
+        assertEquals(1, groups.size());
+        assertEquals(reference.findConnectedGroups(image), groups);
+    }
+
+    /** Statistics of a rectangle, a horizontal line and a vertical line. */
+    @Test
+    void testGroupStatsShapes() {
+        int[][] image = new int[8][10];
+        for (int y = 1; y <= 3; y++) {
+            for (int x = 1; x <= 4; x++) {
+                image[y][x] = 1;
+            }
+        }
+        for (int x = 0; x < 10; x++) {
+            image[6][x] = 1;
+        }
+        for (int y = 0; y < 5; y++) {
+            image[y][8] = 1;
+        }
+
+        List<GroupStats> stats = finder.findGroupStats(image);
+        assertEquals(finder.findConnectedGroups(image), stats.stream().map(GroupStats::group).toList());
+
+        GroupStats rectangle = stats.get(0);
+        assertEquals(12, rectangle.size());
+        assertEquals(2.5, rectangle.centroidX(), 1e-9);
+        assertEquals(2.0, rectangle.centroidY(), 1e-9);
+        assertEquals(List.of(1, 1, 4, 3), List.of(rectangle.minX(), rectangle.minY(), rectangle.maxX(), rectangle.maxY()));
+        assertEquals(4, rectangle.width());
+        assertEquals(3, rectangle.height());
+        assertEquals(1.25, rectangle.varianceX(), 1e-9);
+        assertEquals(2.0 / 3, rectangle.varianceY(), 1e-9);
+        assertEquals(0, rectangle.covarianceXY(), 1e-9);
+        assertEquals(10, rectangle.perimeter());
+        assertEquals(0, rectangle.orientation(), 1e-9);
+
+        GroupStats horizontal = stats.get(1);
+        assertEquals(10, horizontal.size());
+        assertEquals(10, horizontal.perimeter());
+        assertEquals(4.5, horizontal.centroidX(), 1e-9);
+        assertEquals(0, horizontal.orientation(), 1e-9);
+        assertEquals(1, horizontal.eccentricity(), 1e-9);
+
+        GroupStats vertical = stats.get(2);
+        assertEquals(Math.PI / 2, vertical.orientation(), 1e-9);
+        assertEquals(1, vertical.eccentricity(), 1e-9);
+        assertEquals("5,8,2,8.000,2.000,8,0,8,4,0.000,2.000,0.000,5,1.571,1.000", vertical.toCsvRow());
+        assertEquals("5,10,5,10.000,5.000,10,3,10,7,0.000,2.000,0.000,5,1.571,1.000", vertical.translate(2, 3).toCsvRow());
+    }
+
+    /** A diagonal line leans at 45 degrees, and a single pixel has no shape. */
+    @Test
+    void testGroupStatsOrientation() {
+        // A staircase, so the pixels stay connected vertically and horizontally
+        int[][] image = new int[12][12];
+        for (int i = 0; i < 10; i++) {
+            image[i][i] = 1;
+            image[i][i + 1] = 1;
+        }
+        image[11][0] = 1;
+
+        List<GroupStats> stats = finder.findGroupStats(image);
+        assertEquals(Math.PI / 4, stats.get(0).orientation(), 0.01);
+        assertTrue(stats.get(0).eccentricity() > 0.9);
+
+        GroupStats single = stats.get(1);
+        assertEquals(1, single.perimeter());
+        assertEquals(0, single.eccentricity());
+        assertEquals(0, single.varianceX());
+    }
+
+    /** Statistics match ones added up pixel by pixel, for the same groups and in the same order, query included. */
+    @Test
+    void testGroupStatsMatchPixelSums() {
+        Random random = new Random(23);
+        for (int trial = 0; trial < 40; trial++) {
+            int[][] image = TestImages.randomMask(random, 1 + random.nextInt(50), 1 + random.nextInt(50), 0.3 + random.nextDouble() * 0.4);
+            Connectivity connectivity = trial % 2 == 0 ? Connectivity.FOUR : Connectivity.EIGHT;
+            ScanlineBinaryGroupFinder statsFinder = new ScanlineBinaryGroupFinder(connectivity);
+            GroupQuery query = trial % 3 == 0 ? new GroupQuery(2, 3) : GroupQuery.ALL;
+
+            List<GroupStats> expected = pixelStats(image, connectivity).stream()
+                    .filter(stats -> stats.size() >= query.minSize())
+                    .limit(query.limit())
+                    .toList();
+            List<GroupStats> stats = statsFinder.findGroupStats(image, query);
+            assertEquals(expected, stats);
+            assertEquals(statsFinder.findConnectedGroups(image, query), stats.stream().map(GroupStats::group).toList());
+        }
+        assertThrows(NullPointerException.class, () -> finder.findGroupStats(null));
+        assertThrows(IllegalArgumentException.class, () -> finder.findGroupStats(new int[1][1], null));
+        assertEquals(List.of(), finder.findGroupStats(new int[0][0]));
+    }
+
+    /** Adds up the statistics of every group one pixel at a time and returns them in descending order. */
+    private static List<GroupStats> pixelStats(int[][] image, Connectivity connectivity) {
+        int rows = image.length;
+        int cols = image[0].length;
+        int[][] labels = new int[rows][cols];
+        int groups = 0;
+        for (int y = 0; y < rows; y++) {
+            for (int x = 0; x < cols; x++) {
+                if (image[y][x] == 1 && labels[y][x] == 0) {
+                    label(image, labels, x, y, ++groups, connectivity);
+                }
+            }
+        }
+
+        // Per label: count, sumX, sumY, sumXX, sumYY, sumXY, minX, minY, maxX, maxY, perimeter
+        long[][] sums = new long[groups + 1][];
+        for (int y = 0; y < rows; y++) {
+            for (int x = 0; x < cols; x++) {
+                int label = labels[y][x];
+                if (label == 0) continue;
+                if (sums[label] == null) {
+                    sums[label] = new long[]{0, 0, 0, 0, 0, 0, x, y, x, y, 0};
+                }
+                long[] s = sums[label];
+                s[0]++;
+                s[1] += x;
+                s[2] += y;
+                s[3] += (long) x * x;
+                s[4] += (long) y * y;
+                s[5] += (long) x * y;
+                s[6] = Math.min(s[6], x);
+                s[7] = Math.min(s[7], y);
+                s[8] = Math.max(s[8], x);
+                s[9] = Math.max(s[9], y);
+                if (y == 0 || y == rows - 1 || x == 0 || x == cols - 1 || image[y - 1][x] == 0
+                        || image[y + 1][x] == 0 || image[y][x - 1] == 0 || image[y][x + 1] == 0) {
+                    s[10]++;
+                }
+            }
+        }
+
+        List<GroupStats> found = new ArrayList<>();
+        for (int label = 1; label <= groups; label++) {
+            long[] s = sums[label];
+            found.add(GroupStats.fromSums((int) s[0], s[1], s[2], s[3], s[4], s[5],
+                    (int) s[6], (int) s[7], (int) s[8], (int) s[9], (int) s[10]));
+        }
+        found.sort(Comparator.reverseOrder());
+        return found;
+    }
+
+    /** Gives every pixel of the group containing (startX, startY) the label. */
+    private static void label(int[][] image, int[][] labels, int startX, int startY, int label, Connectivity connectivity) {
+        ArrayDeque<int[]> pending = new ArrayDeque<>();
+        labels[startY][startX] = label;
+        pending.push(new int[]{startX, startY});
+        while (!pending.isEmpty()) {
+            int[] pixel = pending.pop();
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dx = -1; dx <= 1; dx++) {
+                    if (dx != 0 && dy != 0 && connectivity == Connectivity.FOUR) continue;
+                    int x = pixel[0] + dx;
+                    int y = pixel[1] + dy;
+                    if (x >= 0 && x < image[0].length && y >= 0 && y < image.length
+                            && image[y][x] == 1 && labels[y][x] == 0) {
+                        labels[y][x] = label;
+                        pending.push(new int[]{x, y});
+                    }
+                }
+            }
+        }
+    }
+
+    /** Eight-connected statistics cover the pixels that only touch diagonally. */
+    @Test
+    void testEightConnectedGroupStats() {
+        // An X: both diagonals of a 7x7 square, crossing at (3,3)
+        int[][] cross = new int[7][7];
+        for (int i = 0; i < 7; i++) {
+            cross[i][i] = 1;
+            cross[i][6 - i] = 1;
+        }
+        List<GroupStats> stats = new ScanlineBinaryGroupFinder(Connectivity.EIGHT).findGroupStats(cross);
+        assertEquals(1, stats.size());
+        assertEquals(13, stats.get(0).perimeter());
+        assertEquals(0, stats.get(0).covarianceXY(), 1e-9);
+        assertEquals(13, finder.findGroupStats(cross).size());
+    }
+
+    /** An empty image has no groups. */
+    @Test
+    void testEmptyImage() {
+        assertEquals(List.of(), finder.findConnectedGroups(new int[0][0]));
+    }
+
+    /** Null image should throw a NullPointerException. */
+    @Test
+    void testNullImage() {
+        assertThrows(NullPointerException.class, () -> finder.findConnectedGroups(null));
+    }
+
+    /** Non-rectangular array should throw IllegalArgumentException. */
+    @Test
+    void testNonRectangularArray() {
+        int[][] image = {
+                {1, 0, 1},
+                {1, 0},
+                {1, 0, 1}
+        };
+        assertThrows(IllegalArgumentException.class, () -> finder.findConnectedGroups(image));
+    }
+}
@@ -0,0 +1,12 @@
+/**
+ * What one run of one pipeline stage cost and processed.
+ *
+ * @param stage the stage that ran
+ * @param nanos the wall-clock time the stage took in nanoseconds
+ * @param pixels the number of pixels the stage handled, or 0 if it does not handle pixels
+ * @param groups the number of groups the stage produced or wrote, or 0 if it does not handle groups
+ * @param allocatedBytes the bytes the running thread allocated during the stage, or -1 if the JVM
+ *                       cannot measure per-thread allocation
+ */
+public record StageMetrics(PipelineStage stage, long nanos, long pixels, int groups, long allocatedBytes) {
+}
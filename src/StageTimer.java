@@ -0,0 +1,131 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+
+/**
+ * Measures one run of a pipeline stage on the current thread, reports it to a listener and
+ * emits it as a Java Flight Recorder event.
+ *
+ * Without a listener and with no recording enabling the stage's event, start returns a shared
+ * timer that does nothing, so uninstrumented runs never read the clock or the allocation counter
+ * and allocate nothing: whether a stage's event is enabled is asked of one event per stage that
+ * is created once and never committed.
+ */
+final class StageTimer {
+    // HotSpot's ThreadMXBean can report the bytes allocated by the current thread
+    private static final com.sun.management.ThreadMXBean ALLOCATION = allocationBean();
+
+    private static final StageTimer NONE = new StageTimer();
+
+    // One event per stage, by ordinal, only ever asked whether a recording enables its type
+    private static final PipelineEvent[] ENABLED_CHECKS = enabledChecks();
+
+    private final PipelineListener listener;
+    private final PipelineStage stage;
+    private final PipelineEvent event;
+    private final long startNanos;
+    private final long startBytes;
+
+    private StageTimer() {
+        this(null, null, null);
+    }
+
+    private StageTimer(PipelineListener listener, PipelineStage stage, PipelineEvent event) {
+        this.listener = listener;
+        this.stage = stage;
+        this.event = event;
+        this.startBytes = listener == null ? 0 : allocatedBytes();
+        this.startNanos = listener == null ? 0 : System.nanoTime();
+        if (event != null) {
+            event.begin();
+        }
+    }
+
+    /**
+     * Starts timing a stage.
+     *
+     * @param listener the listener to report to, or null for none
+     * @param stage the stage being timed
+     * @return the running timer
+     */
+    static StageTimer start(PipelineListener listener, PipelineStage stage) {
+        boolean recorded = ENABLED_CHECKS[stage.ordinal()].isEnabled();
+        if (!recorded && listener == null) {
+            return NONE;
+        }
+        return new StageTimer(listener, stage, recorded ? newEvent(stage) : null);
+    }
+
+    /**
+     * Stops timing and reports a stage that does not produce groups.
+     *
+     * @param pixels the number of pixels the stage handled
+     * @param groups the number of groups the stage wrote
+     */
+    void finish(long pixels, int groups) {
+        finish(pixels, groups, 0);
+    }
+
+    /**
+     * Stops timing and reports a stage that produced groups.
+     *
+     * @param pixels the number of pixels the stage handled
+     * @param groups the groups, largest first
+     */
+    void finish(long pixels, List<Group> groups) {
+        finish(pixels, groups.size(), groups.isEmpty() ? 0 : groups.get(0).size());
+    }
+
+    private void finish(long pixels, int groups, int largestGroup) {
+        if (event != null) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.set(pixels, groups, largestGroup);
+                event.commit();
+            }
+        }
+        if (listener == null) {
+            return;
+        }
+        long nanos = System.nanoTime() - startNanos;
+        long bytes = startBytes < 0 ? -1 : allocatedBytes() - startBytes;
+        listener.stageCompleted(new StageMetrics(stage, nanos, pixels, groups, bytes));
+    }
+
+    /**
+     * Creates the JFR event for a stage. This lives here rather than in PipelineEvent because JFR
+     * instruments event classes as they load, and a factory there would load the subclasses
+     * in the middle of that instrumentation and fail.
+     */
+    static PipelineEvent newEvent(PipelineStage stage) {
+        return switch (stage) {
+            case DECODE -> new DecodeEvent();
+            case BINARIZE -> new BinarizeEvent();
+            case LABEL -> new LabelEvent();
+            case WRITE_GROUPS -> new WriteEvent("groups");
+            case WRITE_IMAGE -> new WriteEvent("image");
+        };
+    }
+
+    private static PipelineEvent[] enabledChecks() {
+        PipelineStage[] stages = PipelineStage.values();
+        PipelineEvent[] checks = new PipelineEvent[stages.length];
+        for (PipelineStage stage : stages) {
+            checks[stage.ordinal()] = newEvent(stage);
+        }
+        return checks;
+    }
+
+    private static long allocatedBytes() {
+        return ALLOCATION == null ? -1 : ALLOCATION.getCurrentThreadAllocatedBytes();
+    }
+
+    private static com.sun.management.ThreadMXBean allocationBean() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean allocation && allocation.isThreadAllocatedMemorySupported()) {
+            allocation.setThreadAllocatedMemoryEnabled(true);
+            return allocation;
+        }
+        return null;
+    }
+}
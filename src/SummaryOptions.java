@@ -0,0 +1,183 @@
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The optional flags ImageSummaryApp accepts after its positional arguments.
+ *
+ *   --min-size <n>   only report groups with at least n pixels
+ *   --top <k>        only report the k largest groups; exact here, since the app always labels at full
+ *                    resolution (an unrefined pyramid-mode BinarizingImageGroupFinder can miss large
+ *                    thin groups, such as a 1-pixel line, so its top k can differ)
+ *   --no-binarized   skip writing the binarized mask image
+ *   --metrics        print per-stage metrics at the end of the run
+ *   --connectivity <4|8>
+ *                    connect pixels only vertically and horizontally (4, the default),
+ *                    or diagonally as well (8)
+ *   --stats          also write each group's bounding box, moments and perimeter to group_stats.csv
+ *   --incremental    in sequence mode, only process the parts of each frame that changed
+ *   --track <d>      in sequence mode, give each group an ID that follows it from frame to frame
+ *                    while it moves at most d pixels per frame
+ *   --roi <x,y,w,h>  only search the rectangle with top-left (x, y), width w and height h
+ *   --roi-polygon <x1,y1,x2,y2,...>
+ *                    only search the polygon with these vertices (at least 3)
+ *
+ * Not every mode supports every flag (see Mode), and a flag the mode would ignore is rejected.
+ */
+final class SummaryOptions {
+    /**
+     * The app's modes and the flags each one supports.
+     */
+    enum Mode {
+        SINGLE("single-image", "[--min-size <n>] [--top <k>] [--no-binarized] [--metrics] [--stats] "
+                + "[--connectivity <4|8>] [--roi <x,y,w,h> | --roi-polygon <x1,y1,x2,y2,...>]",
+                "--min-size", "--top", "--no-binarized", "--metrics", "--stats", "--connectivity", "--roi", "--roi-polygon"),
+        SEQUENCE("sequence", "[--min-size <n>] [--top <k>] [--metrics] [--connectivity <4|8>] [--incremental] "
+                + "[--track <d>] [--roi <x,y,w,h> | --roi-polygon <x1,y1,x2,y2,...>]",
+                "--min-size", "--top", "--metrics", "--connectivity", "--incremental", "--track", "--roi", "--roi-polygon"),
+        BATCH("batch", "[--min-size <n>] [--top <k>] [--no-binarized] [--connectivity <4|8>]",
+                "--min-size", "--top", "--no-binarized", "--connectivity");
+
+        private final String description;
+        /** The flags of this mode, as shown in usage messages. */
+        final String usage;
+        private final Set<String> flags;
+
+        Mode(String description, String usage, String... flags) {
+            this.description = description;
+            this.usage = usage;
+            this.flags = Set.of(flags);
+        }
+    }
+
+    int minSize = 0;
+    int top = Integer.MAX_VALUE;
+    boolean writeBinarized = true;
+    boolean metrics = false;
+    boolean stats = false;
+    Connectivity connectivity = Connectivity.FOUR;
+    boolean incremental = false;
+    // The tracker's max distance, or -1 to not track
+    int trackDistance = -1;
+    RegionOfInterest region = null;
+    // Every flag that was given, so a mode can reject the ones it does not support
+    private final Set<String> given = new HashSet<>();
+
+    /**
+     * Parses the flags in args for the given mode, starting at index start.
+     *
+     * @param args the command-line arguments
+     * @param start the index of the first flag
+     * @param mode the mode the flags are for
+     * @return the parsed options
+     * @throws IllegalArgumentException if a flag is unknown or not supported by the mode, or its value is missing or invalid
+     */
+    static SummaryOptions parse(String[] args, int start, Mode mode) {
+        SummaryOptions options = parse(args, start);
+        for (String flag : options.given) {
+            if (!mode.flags.contains(flag)) {
+                throw new IllegalArgumentException(flag + " is not supported in " + mode.description + " mode");
+            }
+        }
+        return options;
+    }
+
+    /**
+     * Parses the flags in args, starting at index start, accepting every flag of every mode.
+     *
+     * @param args the command-line arguments
+     * @param start the index of the first flag
+     * @return the parsed options
+     * @throws IllegalArgumentException if a flag is unknown or its value is missing or invalid
+     */
+    static SummaryOptions parse(String[] args, int start) {
+        SummaryOptions options = new SummaryOptions();
+        for (int i = start; i < args.length; i++) {
+            String flag = args[i];
+            options.given.add(flag);
+            switch (flag) {
+                case "--min-size" -> options.minSize = nonNegative(flag, value(args, ++i, flag));
+                case "--top" -> options.top = nonNegative(flag, value(args, ++i, flag));
+                case "--no-binarized" -> options.writeBinarized = false;
+                case "--metrics" -> options.metrics = true;
+                case "--stats" -> options.stats = true;
+                case "--connectivity" -> options.connectivity = connectivity(flag, value(args, ++i, flag));
+                case "--incremental" -> options.incremental = true;
+                case "--track" -> options.trackDistance = nonNegative(flag, value(args, ++i, flag));
+                case "--roi" -> options.region = rectangle(flag, value(args, ++i, flag));
+                case "--roi-polygon" -> options.region = polygon(flag, value(args, ++i, flag));
+                default -> throw new IllegalArgumentException("Unknown option: " + flag);
+            }
+        }
+        return options;
+    }
+
+    /**
+     * @return the query that keeps the groups these options ask for
+     */
+    GroupQuery query() {
+        return new GroupQuery(minSize, top);
+    }
+
+    private static String value(String[] args, int index, String flag) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException(flag + " needs a value");
+        }
+        return args[index];
+    }
+
+    private static Connectivity connectivity(String flag, String value) {
+        try {
+            return Connectivity.of(Integer.parseInt(value));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(flag + " must be 4 or 8");
+        }
+    }
+
+    private static RegionOfInterest rectangle(String flag, String value) {
+        int[] numbers = integers(flag, value);
+        if (numbers.length != 4) {
+            throw new IllegalArgumentException(flag + " needs x,y,width,height");
+        }
+        return RegionOfInterest.rectangle(numbers[0], numbers[1], numbers[2], numbers[3]);
+    }
+
+    private static RegionOfInterest polygon(String flag, String value) {
+        int[] numbers = integers(flag, value);
+        if (numbers.length % 2 != 0) {
+            throw new IllegalArgumentException(flag + " needs x,y pairs");
+        }
+        int[] xPoints = new int[numbers.length / 2];
+        int[] yPoints = new int[numbers.length / 2];
+        for (int i = 0; i < xPoints.length; i++) {
+            xPoints[i] = numbers[2 * i];
+            yPoints[i] = numbers[2 * i + 1];
+        }
+        return RegionOfInterest.polygon(xPoints, yPoints);
+    }
+
+    private static int[] integers(String flag, String value) {
+        String[] parts = value.split(",");
+        int[] numbers = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            try {
+                numbers[i] = Integer.parseInt(parts[i].trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(flag + " must be a comma-separated list of integers");
+            }
+        }
+        return numbers;
+    }
+
+    private static int nonNegative(String flag, String value) {
+        int number;
+        try {
+            number = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(flag + " must be an integer");
+        }
+        if (number < 0) {
+            throw new IllegalArgumentException(flag + " cannot be negative");
+        }
+        return number;
+    }
+}
@@ -0,0 +1,99 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.Rectangle;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for parsing ImageSummaryApp's optional flags.
+ */
+public class SummaryOptionsTest {
+
+    private static final String[] POSITIONAL = {"image.png", "FFA200", "164"};
+
+    private static String[] args(String... flags) {
+        String[] args = new String[POSITIONAL.length + flags.length];
+        System.arraycopy(POSITIONAL, 0, args, 0, POSITIONAL.length);
+        System.arraycopy(flags, 0, args, POSITIONAL.length, flags.length);
+        return args;
+    }
+
+    /** No flags keeps every group. */
+    @Test
+    void testDefaults() {
+        assertEquals(GroupQuery.ALL, SummaryOptions.parse(args(), 3).query());
+        assertTrue(SummaryOptions.parse(args(), 3).writeBinarized);
+    }
+
+    /** The mask image can be turned off alongside the query flags. */
+    @Test
+    void testNoBinarized() {
+        SummaryOptions options = SummaryOptions.parse(args("--no-binarized", "--top", "3"), 3);
+        assertFalse(options.writeBinarized);
+        assertEquals(new GroupQuery(0, 3), options.query());
+        assertFalse(options.metrics);
+        assertTrue(SummaryOptions.parse(args("--metrics"), 3).metrics);
+        assertFalse(options.stats);
+        assertTrue(SummaryOptions.parse(args("--stats"), 3).stats);
+        assertEquals(Connectivity.FOUR, options.connectivity);
+        assertEquals(Connectivity.EIGHT, SummaryOptions.parse(args("--connectivity", "8"), 3).connectivity);
+        assertFalse(options.incremental);
+        assertTrue(SummaryOptions.parse(args("--incremental"), 3).incremental);
+        assertEquals(-1, options.trackDistance);
+        assertEquals(12, SummaryOptions.parse(args("--track", "12"), 3).trackDistance);
+    }
+
+    /** Both query flags, in any order. */
+    @Test
+    void testQueryFlags() {
+        assertEquals(new GroupQuery(50, 10), SummaryOptions.parse(args("--top", "10", "--min-size", "50"), 3).query());
+    }
+
+    /** Rectangle and polygon regions of interest. */
+    @Test
+    void testRegionFlags() {
+        assertNull(SummaryOptions.parse(args(), 3).region);
+        RegionOfInterest rectangle = SummaryOptions.parse(args("--roi", "10,20,30,40"), 3).region;
+        assertEquals(new Rectangle(10, 20, 30, 40), rectangle.bounds());
+
+        RegionOfInterest polygon = SummaryOptions.parse(args("--roi-polygon", "0,0,10,0,0,10"), 3).region;
+        assertFalse(polygon.isRectangle());
+        assertTrue(polygon.contains(1, 1));
+        assertFalse(polygon.contains(9, 9));
+
+        assertThrows(IllegalArgumentException.class, () -> SummaryOptions.parse(args("--roi", "1,2,3"), 3));
+        assertThrows(IllegalArgumentException.class, () -> SummaryOptions.parse(args("--roi", "1,2,x,4"), 3));
+        assertThrows(IllegalArgumentException.class, () -> SummaryOptions.parse(args("--roi-polygon", "0,0,10,0,5"), 3));
+    }
+
+    /** Each mode rejects the flags it would otherwise ignore. */
+    @Test
+    void testModeFlags() {
+        String[] sequenceOnly = args("--incremental", "--track", "5", "--roi", "0,0,10,10");
+        SummaryOptions sequence = SummaryOptions.parse(sequenceOnly, 3, SummaryOptions.Mode.SEQUENCE);
+        assertTrue(sequence.incremental);
+        assertNotNull(sequence.region);
+        assertThrows(IllegalArgumentException.class, () -> SummaryOptions.parse(args("--incremental"), 3, SummaryOptions.Mode.SINGLE));
+        assertThrows(IllegalArgumentException.class, () -> SummaryOptions.parse(args("--track", "5"), 3, SummaryOptions.Mode.SINGLE));
+        assertThrows(IllegalArgumentException.class, () -> SummaryOptions.parse(args("--stats"), 3, SummaryOptions.Mode.SEQUENCE));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> SummaryOptions.parse(args("--top", "2", "--roi", "0,0,10,10"), 3, SummaryOptions.Mode.BATCH));
+        assertEquals("--roi is not supported in batch mode", e.getMessage());
+        for (String flag : new String[] {"--metrics", "--stats", "--incremental"}) {
+            assertThrows(IllegalArgumentException.class, () -> SummaryOptions.parse(args(flag), 3, SummaryOptions.Mode.BATCH));
+        }
+        assertEquals(new GroupQuery(0, 2),
+                SummaryOptions.parse(args("--top", "2", "--no-binarized"), 3, SummaryOptions.Mode.BATCH).query());
+    }
+
+    /** Bad flags and values are rejected. */
+    @Test
+    void testInvalidFlags() {
+        assertThrows(IllegalArgumentException.class, () -> SummaryOptions.parse(args("--top"), 3));
+        assertThrows(IllegalArgumentException.class, () -> SummaryOptions.parse(args("--top", "ten"), 3));
+        assertThrows(IllegalArgumentException.class, () -> SummaryOptions.parse(args("--min-size", "-1"), 3));
+        assertThrows(IllegalArgumentException.class, () -> SummaryOptions.parse(args("--bogus"), 3));
+        assertThrows(IllegalArgumentException.class, () -> SummaryOptions.parse(args("--connectivity", "6"), 3));
+    }
+}
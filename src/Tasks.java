@@ -0,0 +1,65 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs a batch of tasks on an executor and waits for all of them, for the classes that split
+ * an image into parts and process the parts in parallel, and creates executors for blocking I/O.
+ */
+final class Tasks {
+    private Tasks() {
+    }
+
+    /**
+     * Runs every task on the executor and returns their results in the same order as the tasks.
+     *
+     * If a task throws a RuntimeException it is rethrown as is. Any other failure, or being
+     * interrupted while waiting, is wrapped in an IllegalStateException.
+     *
+     * @param executor the executor to run the tasks on
+     * @param tasks the tasks to run
+     * @return the result of each task, in task order
+     */
+    static <T> List<T> runAll(ExecutorService executor, List<Callable<T>> tasks) {
+        List<T> results = new ArrayList<>(tasks.size());
+        try {
+            for (Future<T> future : executor.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for tasks", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Task failed", e.getCause());
+        }
+        return results;
+    }
+
+    /**
+     * Creates an executor that starts a new thread for each task, for tasks that spend most of
+     * their time blocked on I/O. Each thread is a virtual thread when the running JVM has them
+     * (Java 21 and later) and a daemon platform thread otherwise. Callers bound how many tasks
+     * they submit at once.
+     *
+     * @return the executor
+     */
+    static ExecutorService newThreadPerTaskExecutor() {
+        try {
+            // Looked up reflectively so the code still compiles and runs on older JVMs
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
@@ -0,0 +1,43 @@
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+/**
+ * Random masks and images shared by the tests.
+ */
+final class TestImages {
+    private TestImages() {
+    }
+
+    /** Builds a random width x height mask where each pixel is 1 with the given probability. */
+    static int[][] randomMask(Random random, int width, int height, double density) {
+        int[][] image = new int[height][width];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image[y][x] = random.nextDouble() < density ? 1 : 0;
+            }
+        }
+        return image;
+    }
+
+    /** Builds an image of the given type filled with random colors. */
+    static BufferedImage randomImage(Random random, int width, int height, int type) {
+        BufferedImage image = new BufferedImage(width, height, type);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, random.nextInt());
+            }
+        }
+        return image;
+    }
+
+    /** Builds a random black and white image where each pixel is white with the given probability. */
+    static BufferedImage randomBlackAndWhiteImage(Random random, int width, int height, double density) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, random.nextDouble() < density ? 0xFFFFFF : 0x000000);
+            }
+        }
+        return image;
+    }
+}
@@ -0,0 +1,18 @@
+/**
+ * A group found in one frame together with the ID of the track it belongs to.
+ *
+ * A GroupTracker gives the same ID to the groups it believes are the same object in consecutive
+ * frames, so the ID identifies an object across a whole sequence.
+ */
+public record TrackedGroup(int id, Group group) {
+
+    /**
+     * Returns a string representing this tracked group in comma-separated values (CSV) format.
+     * The format is "id,size,x,y", where id is the track ID and size, x and y are as in Group.toCsvRow.
+     *
+     * @return a CSV row string representing the track ID, size and centroid coordinates
+     */
+    public String toCsvRow() {
+        return id + "," + group.toCsvRow();
+    }
+}
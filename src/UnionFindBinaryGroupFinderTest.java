@@ -0,0 +1,98 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for UnionFindBinaryGroupFinder, checked against the reference DFS.
+ */
+public class UnionFindBinaryGroupFinderTest {
+
+    private final UnionFindBinaryGroupFinder finder = new UnionFindBinaryGroupFinder();
+    private final BinaryGroupFinder reference = new ReferenceBinaryGroupFinder();
+
+    /** Random masks of many shapes and densities should match the DFS output exactly. */
+    @Test
+    void testMatchesDfsOnRandomMasks() {
+        Random random = new Random(7);
+        double[] densities = {0.05, 0.3, 0.5, 0.6, 0.9, 1.0};
+        for (int trial = 0; trial < 60; trial++) {
+            int width = 1 + random.nextInt(80);
+            int height = 1 + random.nextInt(80);
+            double density = densities[trial % densities.length];
+            int[][] image = TestImages.randomMask(random, width, height, density);
+
+            assertEquals(reference.findConnectedGroups(image), finder.findConnectedGroups(image),
+                    "Mismatch on " + width + "x" + height + " mask with density " + density);
+        }
+    }
+
+    /** Two arms that only meet at the bottom start with different labels and must be merged. */
+    @Test
+    void testMergesLabelsThatMeetLater() {
+        int[][] image = {
+                {1, 0, 1, 0, 1},
+                {1, 0, 1, 0, 1},
+                {1, 1, 1, 1, 1}
+        };
+        List<Group> expected = List.of(new Group(11, new Coordinate(2, 1)));
+        assertEquals(expected, finder.findConnectedGroups(image));
+    }
+
+    /** Plugged into BinarizingImageGroupFinder, the sample image should give the same groups as DFS. */
+    @Test
+    void testPlugsIntoBinarizingImageGroupFinder() throws IOException {
+        BufferedImage input = ImageIO.read(new File("sampleInput/squares.jpg"));
+        ImageBinarizer binarizer = new DistanceImageBinarizer(new EuclideanColorDistance(), 0xFFA200, 164);
+
+        List<Group> expected = new BinarizingImageGroupFinder(binarizer, reference).findConnectedGroups(input);
+        List<Group> actual = new BinarizingImageGroupFinder(binarizer, finder).findConnectedGroups(input);
+
+        assertEquals(expected, actual);
+    }
+
+    /** With eight-connectivity, random masks and diagonal arms that meet later match the eight-connected DFS. */
+    @Test
+    void testEightConnectedMatchesDfs() {
+        BinaryGroupFinder eightReference = new ReferenceBinaryGroupFinder(Connectivity.EIGHT);
+        UnionFindBinaryGroupFinder eight = new UnionFindBinaryGroupFinder(Connectivity.EIGHT);
+        Random random = new Random(25);
+        for (int trial = 0; trial < 40; trial++) {
+            int[][] image = TestImages.randomMask(random, 1 + random.nextInt(70), 1 + random.nextInt(70), 0.1 + trial % 5 * 0.1);
+            assertEquals(eightReference.findConnectedGroups(image), eight.findConnectedGroups(image));
+        }
+
+        // A V whose two diagonal arms get different labels until they meet at the bottom
+        int[][] vee = new int[5][9];
+        for (int i = 0; i < 5; i++) {
+            vee[i][i] = 1;
+            vee[i][8 - i] = 1;
+        }
+        assertEquals(List.of(new Group(9, new Coordinate(4, 1))), eight.findConnectedGroups(vee));
+        assertEquals(Connectivity.EIGHT, eight.connectivity());
+    }
+
+    /** Null image should throw a NullPointerException. */
+    @Test
+    void testNullImage() {
+        assertThrows(NullPointerException.class, () -> finder.findConnectedGroups(null));
+    }
+
+    /** Non-rectangular array should throw IllegalArgumentException. */
+    @Test
+    void testNonRectangularArray() {
+        int[][] image = {
+                {1, 0, 1},
+                {1, 0},
+                {1, 0, 1}
+        };
+        assertThrows(IllegalArgumentException.class, () -> finder.findConnectedGroups(image));
+    }
+}
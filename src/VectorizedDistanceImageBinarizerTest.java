@@ -0,0 +1,62 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for VectorizedDistanceImageBinarizer, checked against DistanceImageBinarizer.
+ */
+public class VectorizedDistanceImageBinarizerTest {
+
+    /** Random images of odd widths (so there is always a scalar tail) at many thresholds. */
+    @Test
+    void testMatchesDistanceImageBinarizer() {
+        Random random = new Random(21);
+        int[] thresholds = {-5, 0, 1, 2, 50, 164, 300, 441, 442, Integer.MAX_VALUE};
+        for (int threshold : thresholds) {
+            int width = 1 + random.nextInt(70);
+            int height = 1 + random.nextInt(10);
+            int target = random.nextInt(1 << 24);
+            BufferedImage image = TestImages.randomImage(random, width, height, BufferedImage.TYPE_INT_ARGB);
+
+            DistanceImageBinarizer expected = new DistanceImageBinarizer(new EuclideanColorDistance(), target, threshold);
+            VectorizedDistanceImageBinarizer actual = new VectorizedDistanceImageBinarizer(target, threshold);
+
+            assertArrayEquals(expected.toBinaryArray(image), actual.toBinaryArray(image), "Threshold " + threshold);
+            assertEquals(expected.toBinaryMask(image), actual.toBinaryMask(image), "Threshold " + threshold);
+        }
+    }
+
+    /** The single pixel check agrees with the Euclidean distance right at the boundary. */
+    @Test
+    void testIsWhiteAtBoundary() {
+        VectorizedDistanceImageBinarizer binarizer = new VectorizedDistanceImageBinarizer(0x102030, 5);
+        // (3, 4, 0) apart is a distance of exactly 5
+        assertFalse(binarizer.isWhite(0x132430));
+        assertTrue(binarizer.isWhite(0x122330));
+    }
+
+    /** The sample image binarizes exactly as with DistanceImageBinarizer. */
+    @Test
+    void testMatchesOnSampleImage() throws IOException {
+        BufferedImage input = ImageIO.read(new File("sampleInput/squares.jpg"));
+        DistanceImageBinarizer expected = new DistanceImageBinarizer(new EuclideanColorDistance(), 0xFFA200, 164);
+        VectorizedDistanceImageBinarizer actual = new VectorizedDistanceImageBinarizer(0xFFA200, 164);
+
+        assertArrayEquals(expected.toBinaryArray(input), actual.toBinaryArray(input));
+    }
+
+    /** Null image should throw. */
+    @Test
+    void testNullImage() {
+        VectorizedDistanceImageBinarizer binarizer = new VectorizedDistanceImageBinarizer(0, 10);
+        assertThrows(IllegalArgumentException.class, () -> binarizer.toBinaryArray(null));
+        assertThrows(IllegalArgumentException.class, () -> binarizer.toBinaryMask(null));
+    }
+}
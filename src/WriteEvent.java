@@ -0,0 +1,27 @@
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A JFR event for writing one output, either a groups CSV or a binarized image.
+ */
+@Name("centroidfinder.Write")
+@Label("Write Output")
+@Description("Writing a groups CSV or encoding and writing a binarized image")
+final class WriteEvent extends PipelineEvent {
+    @Label("Output")
+    String output;
+
+    @Label("Group Count")
+    int groupCount;
+
+    WriteEvent(String output) {
+        this.output = output;
+    }
+
+    @Override
+    void set(long pixels, int groups, int largestGroup) {
+        super.set(pixels, groups, largestGroup);
+        this.groupCount = groups;
+    }
+}